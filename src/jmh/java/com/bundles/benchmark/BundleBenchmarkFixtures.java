@@ -0,0 +1,155 @@
+package com.bundles.benchmark;
+
+import com.bundles.item.BundleItem;
+import com.bundles.util.BundleContents;
+import com.bundles.util.BundleContentsHeader;
+import net.minecraft.enchantment.Enchantments;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.ListNBT;
+import net.minecraft.nbt.StringNBT;
+import net.minecraft.util.registry.Bootstrap;
+
+/**
+ * Bundle Benchmark Fixtures
+ * Synthetic Bundles and Shulker Boxes used by the benchmarks
+ *
+ * @author JimiIT92
+ */
+public final class BundleBenchmarkFixtures {
+
+    /**
+     * Plain Items used to fill the Bundles
+     */
+    private static final Item[] PLAIN_ITEMS = new Item[]{
+        Items.STONE, Items.DIRT, Items.COBBLESTONE, Items.OAK_PLANKS,
+        Items.SAND, Items.GRAVEL, Items.GLASS, Items.OAK_LOG
+    };
+    /**
+     * Bundle Item, created after the registries are bootstrapped
+     */
+    private static Item bundleItem;
+
+    /**
+     * Kind of container being benchmarked
+     */
+    public enum Container {
+        BUNDLE,
+        SHULKER_BOX
+    }
+
+    /**
+     * NBT weight of the Item Stacks inside the container
+     */
+    public enum Weight {
+        /**
+         * Plain blocks without any tag
+         */
+        PLAIN,
+        /**
+         * Enchanted tools
+         */
+        ENCHANTED,
+        /**
+         * Written books with several pages
+         */
+        BOOK
+    }
+
+    /**
+     * Bootstrap the Minecraft registries, without starting the game.
+     * The benchmark threads are not server threads, so they would
+     * count as the client side, while Bundles are filled and
+     * changed by the server
+     */
+    public static synchronized void bootstrap() {
+        if (bundleItem == null) {
+            Bootstrap.register();
+            bundleItem = new BundleItem();
+            BundleContentsHeader.setServerSide(() -> true);
+        }
+    }
+
+    /**
+     * Create an empty container
+     *
+     * @param container Container kind
+     * @return Empty container Item Stack
+     */
+    public static ItemStack createContainer(Container container) {
+        return container == Container.BUNDLE ? new ItemStack(bundleItem) : new ItemStack(Items.SHULKER_BOX);
+    }
+
+    /**
+     * Create a container filled up to a percentage of its capacity.
+     * Bundles are filled by weight, one Item at a time, until the
+     * target weight is reached, so heavy Items may go over it
+     *
+     * @param container Container kind
+     * @param weight    Item Stacks NBT weight
+     * @param fill      Fill percentage
+     * @return Filled container Item Stack
+     * @throws IllegalStateException If the container can't be filled up to the percentage
+     */
+    public static ItemStack createFilled(Container container, Weight weight, int fill) {
+        ItemStack bundle = createContainer(container);
+        BundleContents contents = BundleContents.of(bundle);
+        if (container == Container.BUNDLE) {
+            int targetWeight = bundle.getMaxDamage() * fill / 100;
+            for (int i = 0; contents.getWeight() < targetWeight; i++) {
+                ItemStack stack = createStack(weight, i);
+                stack.setCount(1);
+                if (contents.add(stack) == 0) {
+                    throw new IllegalStateException("Bundle filled up to weight " + contents.getWeight() + " instead of " + targetWeight);
+                }
+            }
+        } else {
+            int slots = 27 * fill / 100;
+            for (int i = 0; i < slots; i++) {
+                ItemStack stack = createStack(weight, i);
+                int count = stack.getMaxStackSize();
+                stack.setCount(count);
+                if (contents.add(stack) != count) {
+                    throw new IllegalStateException("Shulker Box filled up to " + i + " slots instead of " + slots);
+                }
+            }
+        }
+        contents.commit();
+        return bundle;
+    }
+
+    /**
+     * Create an Item Stack
+     *
+     * @param weight Item Stack NBT weight
+     * @param index  Item Stack index, used to tell the Item Stacks apart
+     * @return Item Stack
+     */
+    public static ItemStack createStack(Weight weight, int index) {
+        switch (weight) {
+            case ENCHANTED:
+                ItemStack sword = new ItemStack(Items.DIAMOND_SWORD);
+                sword.addEnchantment(Enchantments.SHARPNESS, 5);
+                sword.addEnchantment(Enchantments.UNBREAKING, 3);
+                sword.addEnchantment(Enchantments.LOOTING, 3);
+                sword.addEnchantment(Enchantments.MENDING, 1);
+                return sword;
+            case BOOK:
+                ItemStack book = new ItemStack(Items.WRITTEN_BOOK);
+                CompoundNBT bookTag = book.getOrCreateTag();
+                bookTag.putString("title", "Book " + index);
+                bookTag.putString("author", "JimiIT92");
+                ListNBT pages = new ListNBT();
+                for (int i = 0; i < 10; i++) {
+                    pages.add(StringNBT.valueOf("{\"text\":\"Page " + i + " of book " + index
+                        + ": Manage Inventory space with the new Bundles!\"}"));
+                }
+                bookTag.put("pages", pages);
+                return book;
+            default:
+                return new ItemStack(PLAIN_ITEMS[index % PLAIN_ITEMS.length]);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.bundles.benchmark;
+
+import com.bundles.util.BundleContents;
+import com.bundles.util.BundleItemUtils;
+import net.minecraft.item.ItemStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bundle Operations Benchmark
+ *
+ * @author JimiIT92
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BundleOperationsBenchmark {
+
+    /**
+     * Invocations of a write benchmark between two iterations,
+     * each using its own fresh copy of the container
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * Bundle that is only read
+     */
+    @State(Scope.Thread)
+    public static class ReadState {
+
+        /**
+         * Container kind
+         */
+        @Param({"BUNDLE", "SHULKER_BOX"})
+        public BundleBenchmarkFixtures.Container container;
+        /**
+         * Item Stacks NBT weight
+         */
+        @Param({"PLAIN", "ENCHANTED", "BOOK"})
+        public BundleBenchmarkFixtures.Weight weight;
+        /**
+         * Fill percentage
+         */
+        @Param({"0", "50", "90", "100"})
+        public int fill;
+
+        /**
+         * Filled container
+         */
+        public ItemStack bundle;
+        /**
+         * Item Stack to add
+         */
+        public ItemStack candidate;
+
+        /**
+         * Create the container
+         */
+        @Setup(Level.Trial)
+        public void setup() {
+            BundleBenchmarkFixtures.bootstrap();
+            bundle = BundleBenchmarkFixtures.createFilled(container, weight, fill);
+            candidate = BundleBenchmarkFixtures.createStack(weight, 1000);
+        }
+    }
+
+    /**
+     * Fresh copies of the Bundle, one for every invocation
+     * of a batch, so changes and caches don't carry over.
+     * The copies are made before each iteration, so the
+     * copying is not timed along with the invocations,
+     * and each score is the time of a whole batch
+     */
+    @State(Scope.Thread)
+    public static class WriteState {
+
+        /**
+         * Fresh container copies
+         */
+        private final ItemStack[] bundles = new ItemStack[BATCH_SIZE];
+        /**
+         * Fresh Item Stacks to add
+         */
+        private final ItemStack[] candidates = new ItemStack[BATCH_SIZE];
+        /**
+         * Index of the next copy to use
+         */
+        private int next;
+        /**
+         * Fresh container copy of the current invocation
+         */
+        public ItemStack bundle;
+        /**
+         * Fresh Item Stack to add of the current invocation
+         */
+        public ItemStack candidate;
+
+        /**
+         * Copy the container for every invocation of the iteration
+         *
+         * @param readState Read State holding the original container
+         */
+        @Setup(Level.Iteration)
+        public void setup(ReadState readState) {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                bundles[i] = readState.bundle.copy();
+                candidates[i] = readState.candidate.copy();
+            }
+            next = 0;
+        }
+
+        /**
+         * Move to the next fresh copy
+         *
+         * @return Write State
+         */
+        public WriteState next() {
+            bundle = bundles[next];
+            candidate = candidates[next];
+            next++;
+            return this;
+        }
+    }
+
+    /**
+     * Add an Item Stack to the Bundle
+     *
+     * @param state Write State
+     * @return Bundle Item Stack
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 10, batchSize = BATCH_SIZE)
+    @Measurement(iterations = 20, batchSize = BATCH_SIZE)
+    public ItemStack add(WriteState state) {
+        state.next();
+        BundleItemUtils.addItemStackToBundle(state.bundle, state.candidate);
+        return state.bundle;
+    }
+
+    /**
+     * Remove the last Item Stack from the Bundle
+     *
+     * @param state Write State
+     * @return Removed Item Stack
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 10, batchSize = BATCH_SIZE)
+    @Measurement(iterations = 20, batchSize = BATCH_SIZE)
+    public ItemStack remove(WriteState state) {
+        return BundleItemUtils.removeFirstItemStack(state.next().bundle, false);
+    }
+
+    /**
+     * Take every Item Stack out of the Bundle
+     *
+     * @param state Write State
+     * @return Removed Item Stacks
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 10, batchSize = BATCH_SIZE)
+    @Measurement(iterations = 20, batchSize = BATCH_SIZE)
+    public List<ItemStack> empty(WriteState state) {
+        BundleContents contents = BundleContents.of(state.next().bundle);
+        List<ItemStack> removed = contents.empty();
+        contents.commit();
+        return removed;
+    }
+
+    /**
+     * Check if an Item Stack can be added to the Bundle
+     *
+     * @param state Read State
+     * @return True if the Item Stack can be added
+     */
+    @Benchmark
+    public boolean canAdd(ReadState state) {
+        return BundleItemUtils.canAddItemStackToBundle(state.bundle, state.candidate);
+    }
+
+    /**
+     * Count the Items inside the Bundle
+     *
+     * @param state Read State
+     * @return Bundle Items Count
+     */
+    @Benchmark
+    public int count(ReadState state) {
+        return BundleItemUtils.getBundleItemsCount(state.bundle);
+    }
+
+    /**
+     * Get the Bundle Item Stacks, hitting the contents cache
+     *
+     * @param state Read State
+     * @return Bundle Item Stacks
+     */
+    @Benchmark
+    public List<ItemStack> getItemsFromBundle(ReadState state) {
+        return BundleItemUtils.getItemsFromBundle(state.bundle);
+    }
+
+    /**
+     * Get the Bundle Item Stacks of a Bundle that was never read
+     *
+     * @param state Write State
+     * @return Bundle Item Stacks
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 10, batchSize = BATCH_SIZE)
+    @Measurement(iterations = 20, batchSize = BATCH_SIZE)
+    public List<ItemStack> getItemsFromBundleUncached(WriteState state) {
+        return BundleItemUtils.getItemsFromBundle(state.next().bundle);
+    }
+}
@@ -0,0 +1,91 @@
+package com.bundles.benchmark;
+
+import com.bundles.util.BundleContents;
+import com.bundles.util.BundleTooltipLayout;
+import net.minecraft.item.ItemStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bundle Tooltip Layout Benchmark
+ * Measures the CPU side of the Bundle Tooltip,
+ * without rendering anything
+ *
+ * @author JimiIT92
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BundleTooltipLayoutBenchmark {
+
+    /**
+     * Container kind
+     */
+    @Param({"BUNDLE", "SHULKER_BOX"})
+    public BundleBenchmarkFixtures.Container container;
+    /**
+     * Item Stacks NBT weight
+     */
+    @Param({"PLAIN", "ENCHANTED", "BOOK"})
+    public BundleBenchmarkFixtures.Weight weight;
+    /**
+     * Fill percentage
+     */
+    @Param({"50", "100"})
+    public int fill;
+
+    /**
+     * Filled container
+     */
+    private ItemStack bundle;
+    /**
+     * Filled container contents hash
+     */
+    private int contentsHash;
+    /**
+     * Decoded container Item Stacks the layout was built for
+     */
+    private List<ItemStack> bundleItems;
+    /**
+     * Layout built for the container
+     */
+    private BundleTooltipLayout layout;
+
+    /**
+     * Create the container and its layout
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        BundleBenchmarkFixtures.bootstrap();
+        bundle = BundleBenchmarkFixtures.createFilled(container, weight, fill);
+        BundleContents contents = BundleContents.of(bundle);
+        contentsHash = contents.getContentsHash();
+        bundleItems = contents.getItems();
+        layout = BundleTooltipLayout.create(bundleItems, contentsHash);
+    }
+
+    /**
+     * Build the layout, as done when a different Bundle is hovered
+     *
+     * @return Bundle Tooltip Layout
+     */
+    @Benchmark
+    public BundleTooltipLayout rebuild() {
+        return BundleTooltipLayout.create(BundleContents.of(bundle).getItems(), contentsHash);
+    }
+
+    /**
+     * Check the cached layout, as done on every frame the same Bundle is hovered
+     *
+     * @return True if the cached layout can be used
+     */
+    @Benchmark
+    public boolean reuse() {
+        return layout.isFor(BundleContents.of(bundle).getItems());
+    }
+}
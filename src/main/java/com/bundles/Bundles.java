@@ -1,14 +1,23 @@
 package com.bundles;
 
+import com.bundles.init.BundleConfig;
 import com.bundles.init.BundleItems;
 import com.bundles.init.BundleResources;
 import com.bundles.network.handler.BundleClientMessageHandler;
+import com.bundles.network.handler.BundleResyncMessageHandler;
 import com.bundles.network.handler.BundleServerMessageHandler;
 import com.bundles.network.message.BundleClientMessage;
+import com.bundles.network.message.BundleResyncMessage;
 import com.bundles.network.message.BundleServerMessage;
+import com.bundles.profiling.BundleMetrics;
+import com.bundles.profiling.BundleProfileCommand;
 import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.RegisterCommandsEvent;
 import net.minecraftforge.eventbus.api.IEventBus;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.ModLoadingContext;
 import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.config.ModConfig;
 import net.minecraftforge.fml.event.lifecycle.FMLCommonSetupEvent;
 import net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext;
 import net.minecraftforge.fml.network.NetworkDirection;
@@ -29,7 +38,9 @@ public class Bundles {
         final IEventBus modEventBus = FMLJavaModLoadingContext.get().getModEventBus();
         modEventBus.addListener(this::onCommonSetup);
         BundleItems.ITEMS.register(modEventBus);
+        ModLoadingContext.get().registerConfig(ModConfig.Type.SERVER, BundleConfig.SERVER_SPEC);
         MinecraftForge.EVENT_BUS.register(this);
+        BundleMetrics.register();
     }
 
     /**
@@ -43,12 +54,29 @@ public class Bundles {
                 BundleClientMessageHandler::isThisProtocolAcceptedByClient,
                 BundleServerMessageHandler::isThisProtocolAcceptedByServer);
         BundleResources.NETWORK.registerMessage(BundleResources.BUNDLE_SERVER_MESSAGE_ID, BundleServerMessage.class,
-                BundleServerMessage::encode, BundleServerMessage::decode,
+                BundleMetrics.countSent(BundleMetrics.MessageType.SERVER, BundleServerMessage::encode),
+                BundleMetrics.countReceived(BundleMetrics.MessageType.SERVER, BundleServerMessage::decode),
                 BundleServerMessageHandler::onMessageReceived,
                 Optional.of(NetworkDirection.PLAY_TO_SERVER));
         BundleResources.NETWORK.registerMessage(BundleResources.BUNDLE_CLIENT_MESSAGE_ID, BundleClientMessage.class,
-                BundleClientMessage::encode, BundleClientMessage::decode,
+                BundleMetrics.countSent(BundleMetrics.MessageType.CLIENT, BundleClientMessage::encode),
+                BundleMetrics.countReceived(BundleMetrics.MessageType.CLIENT, BundleClientMessage::decode),
                 BundleClientMessageHandler::onMessageReceived,
                 Optional.of(NetworkDirection.PLAY_TO_CLIENT));
+        BundleResources.NETWORK.registerMessage(BundleResources.BUNDLE_RESYNC_MESSAGE_ID, BundleResyncMessage.class,
+                BundleMetrics.countSent(BundleMetrics.MessageType.RESYNC, BundleResyncMessage::encode),
+                BundleMetrics.countReceived(BundleMetrics.MessageType.RESYNC, BundleResyncMessage::decode),
+                BundleResyncMessageHandler::onMessageReceived,
+                Optional.of(NetworkDirection.PLAY_TO_SERVER));
+    }
+
+    /**
+     * Register Bundle Commands
+     *
+     * @param event Register Commands Event
+     */
+    @SubscribeEvent
+    public void onRegisterCommands(final RegisterCommandsEvent event) {
+        BundleProfileCommand.register(event.getDispatcher());
     }
 }
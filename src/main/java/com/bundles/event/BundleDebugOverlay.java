@@ -0,0 +1,57 @@
+package com.bundles.event;
+
+import com.bundles.profiling.BundleFrameStats;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.settings.KeyBinding;
+import net.minecraft.client.util.InputMappings;
+import net.minecraftforge.fml.client.registry.ClientRegistry;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Bundle Debug Overlay.
+ * Adds the Bundle frame stats to the debug screen.
+ * Toggled with its own key, unbound by default
+ *
+ * @author JimiIT92
+ */
+final class BundleDebugOverlay {
+
+    /**
+     * Toggle key
+     */
+    private static final KeyBinding TOGGLE_KEY = new KeyBinding("key.bundles.debug_overlay", InputMappings.INPUT_INVALID.getKeyCode(), "key.categories.bundles");
+
+    /**
+     * Register the toggle key
+     */
+    static void registerKeyBinding() {
+        ClientRegistry.registerKeyBinding(TOGGLE_KEY);
+    }
+
+    /**
+     * Toggle the overlay when its key is pressed
+     */
+    static void onKeyInput() {
+        while (TOGGLE_KEY.isPressed()) {
+            BundleFrameStats.setEnabled(!BundleFrameStats.isEnabled());
+        }
+    }
+
+    /**
+     * Add the Bundle frame stats to the debug text
+     *
+     * @param lines Debug text lines
+     */
+    static void addDebugText(List<String> lines) {
+        if (!BundleFrameStats.isEnabled() || !Minecraft.getInstance().gameSettings.showDebugInfo) {
+            return;
+        }
+        lines.add("");
+        lines.add(String.format(Locale.ROOT, "Bundles: %d decodes, %d tooltip rebuilds, %d icons",
+            BundleFrameStats.getDecodes(), BundleFrameStats.getTooltipRebuilds(), BundleFrameStats.getIconsDrawn()));
+        lines.add(String.format(Locale.ROOT, "Bundles: %.3f ms/frame (%d frames avg)",
+            BundleFrameStats.getAverageTime() / 1e6, BundleFrameStats.AVERAGE_FRAMES));
+    }
+}
@@ -0,0 +1,349 @@
+package com.bundles.event;
+
+import com.bundles.network.handler.BundlePredictions;
+import com.bundles.network.message.BundleServerMessage;
+import com.bundles.util.BundleItemUtils;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.screen.Screen;
+import net.minecraft.client.gui.screen.inventory.ContainerScreen;
+import net.minecraft.client.gui.screen.inventory.CreativeScreen;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.inventory.container.Container;
+import net.minecraft.inventory.container.CraftingResultSlot;
+import net.minecraft.inventory.container.Slot;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fml.common.ObfuscationReflectionHelper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Bundle Mouse Input.
+ * State machine turning the mouse events on Container
+ * Screens into Bundle actions. Each Slot is checked at
+ * most once per drag, and nothing is allocated until
+ * an action is actually sent
+ *
+ * @author JimiIT92
+ */
+final class BundleMouseInput {
+
+    /**
+     * Input state
+     */
+    private enum State {
+        /**
+         * No Bundle action in progress
+         */
+        IDLE,
+        /**
+         * Putting the dragged over Item Stacks inside the held Bundle
+         */
+        FILLING,
+        /**
+         * Taking Item Stacks out of the held Bundle into the dragged over Slots
+         */
+        EXTRACTING
+    }
+
+    /**
+     * Slot Index getter, resolved at client setup
+     */
+    private static MethodHandle slotIndexGetter;
+
+    /**
+     * Current state
+     */
+    private State state = State.IDLE;
+    /**
+     * Last Slot under the mouse
+     */
+    private Slot lastSlot;
+    /**
+     * Slots already checked during the current drag
+     */
+    private final BitSet checkedSlots = new BitSet();
+    /**
+     * Slots used during the current drag
+     */
+    private final BitSet usedSlots = new BitSet();
+    /**
+     * Slots dragged over since the last batch has been sent
+     */
+    private final IntArrayList draggedSlots = new IntArrayList();
+    /**
+     * If the dragged Slots should take Item Stacks from the other end of the Bundle
+     */
+    private boolean draggedReversed;
+
+    /**
+     * Resolve the Slot Index getter
+     */
+    static void setup() {
+        try {
+            slotIndexGetter = MethodHandles.lookup().unreflectGetter(ObfuscationReflectionHelper.findField(Slot.class, "field_75225_a"));
+        } catch (IllegalAccessException | ObfuscationReflectionHelper.UnableToFindFieldException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Handle a mouse click
+     *
+     * @param screen Container Screen
+     * @param button Mouse button
+     * @return True if the click has been used for a Bundle action, False otherwise
+     */
+    boolean onClick(ContainerScreen<?> screen, int button) {
+        sendDraggedSlots();
+        state = State.IDLE;
+        checkedSlots.clear();
+        usedSlots.clear();
+        lastSlot = null;
+        PlayerEntity player = Minecraft.getInstance().player;
+        Slot slot = screen.getSlotUnderMouse();
+        if (button != 1 || !isUsable(slot, player)) {
+            return false;
+        }
+        lastSlot = slot;
+        checkedSlots.set(slot.slotNumber);
+        usedSlots.set(slot.slotNumber);
+        Container container = screen.getContainer();
+        ItemStack heldStack = player.inventory.getItemStack();
+        if (canFill(container, slot, heldStack)) {
+            if (Screen.hasShiftDown() && !(container instanceof CreativeScreen.CreativeContainer)) {
+                sendFillAll(container, slot, heldStack, player, Screen.hasControlDown());
+                return true;
+            }
+            state = State.FILLING;
+            send(player, getSlotId(container, slot, player), false);
+            return true;
+        }
+        if (canExtract(container, slot, heldStack)) {
+            state = State.EXTRACTING;
+            send(player, getSlotId(container, slot, player), false);
+            return true;
+        }
+        if (slot.getHasStack() && BundleItemUtils.isBundle(slot.getStack())) {
+            send(player, getSlotId(container, slot, player), true);
+            return true;
+        }
+        usedSlots.clear();
+        return false;
+    }
+
+    /**
+     * Handle a mouse drag
+     *
+     * @param screen Container Screen
+     * @param button Mouse button
+     * @return True if the drag has been used for a Bundle action, False otherwise
+     */
+    boolean onDrag(ContainerScreen<?> screen, int button) {
+        if (button != 1 || state == State.IDLE) {
+            return false;
+        }
+        Slot slot = screen.getSlotUnderMouse();
+        if (slot == null || slot == lastSlot) {
+            return false;
+        }
+        lastSlot = slot;
+        if (checkedSlots.get(slot.slotNumber)) {
+            return usedSlots.get(slot.slotNumber);
+        }
+        checkedSlots.set(slot.slotNumber);
+        PlayerEntity player = Minecraft.getInstance().player;
+        if (!isUsable(slot, player)) {
+            return false;
+        }
+        Container container = screen.getContainer();
+        ItemStack heldStack = player.inventory.getItemStack();
+        boolean usable = state == State.FILLING ? canFill(container, slot, heldStack) : canExtract(container, slot, heldStack);
+        if (usable) {
+            usedSlots.set(slot.slotNumber);
+            int slotId = getSlotId(container, slot, player);
+            if (!draggedSlots.contains(slotId)) {
+                draggedSlots.add(slotId);
+            }
+            draggedReversed = Screen.hasShiftDown();
+        }
+        return usable;
+    }
+
+    /**
+     * Handle a mouse release, ending the current drag
+     */
+    void onRelease() {
+        sendDraggedSlots();
+        state = State.IDLE;
+        lastSlot = null;
+    }
+
+    /**
+     * Send the Slots dragged over since the last batch
+     */
+    void sendDraggedSlots() {
+        if (draggedSlots.isEmpty()) {
+            return;
+        }
+        PlayerEntity player = Minecraft.getInstance().player;
+        if (player != null) {
+            sendSlots(player, draggedSlots, draggedReversed);
+        }
+        draggedSlots.clear();
+    }
+
+    /**
+     * Send a Slots action, inside as few Messages as the
+     * server accepts. Each Message gets at most as many Slots
+     * as the server processes in a tick
+     *
+     * @param player   Player
+     * @param slotIds  Slot Ids
+     * @param reversed If the Item Stacks should be taken from the other end of the Bundle
+     */
+    private static void sendSlots(PlayerEntity player, IntArrayList slotIds, boolean reversed) {
+        int maxSlots = BundleServerMessage.getMaxSlots();
+        for (int from = 0; from < slotIds.size(); from += maxSlots) {
+            int size = Math.min(maxSlots, slotIds.size() - from);
+            BundleServerMessage message = BundlePredictions.obtainMessage(size);
+            slotIds.getElements(from, message.slotIds, 0, size);
+            message.reversed = reversed;
+            BundlePredictions.predict(message, player);
+        }
+    }
+
+    /**
+     * Send a single Slot action
+     *
+     * @param player Player
+     * @param slotId Slot Id
+     * @param empty  If the Bundle should be cleared
+     */
+    private static void send(PlayerEntity player, int slotId, boolean empty) {
+        BundleServerMessage message = BundlePredictions.obtainMessage(1);
+        message.slotIds[0] = slotId;
+        message.empty = empty;
+        message.reversed = Screen.hasShiftDown();
+        BundlePredictions.predict(message, player);
+    }
+
+    /**
+     * Put every matching Item Stack of the Container inside
+     * the held Bundle. The clicked Slot
+     * goes first, then the other Slots in Container order.
+     * The server stops adding once the Bundle is full
+     *
+     * @param container Container
+     * @param clicked   Clicked Slot
+     * @param heldStack Held Bundle Item Stack
+     * @param player    Player
+     * @param anyItem   True to take every Item Stack that fits,
+     *                  False to only take the ones matching the clicked
+     *                  Item Stack or an Item Stack already inside the Bundle
+     */
+    private static void sendFillAll(Container container, Slot clicked, ItemStack heldStack, PlayerEntity player, boolean anyItem) {
+        List<ItemStack> bundleItems = BundleItemUtils.getItemsFromBundle(heldStack);
+        ItemStack clickedStack = clicked.getStack();
+        IntArrayList slotIds = new IntArrayList();
+        slotIds.add(getSlotId(container, clicked, player));
+        for (Slot slot : container.inventorySlots) {
+            if (slotIds.size() >= BundleServerMessage.MAX_SLOTS) {
+                break;
+            }
+            if (slot == clicked || !isUsable(slot, player)) {
+                continue;
+            }
+            ItemStack stack = slot.getStack();
+            if ((anyItem || canMerge(stack, clickedStack) || bundleItems.stream().anyMatch(item -> canMerge(stack, item)))
+                && canFill(container, slot, heldStack)) {
+                slotIds.add(getSlotId(container, slot, player));
+            }
+        }
+        sendSlots(player, slotIds, false);
+    }
+
+    /**
+     * Check if two Item Stacks hold the same Item with the same tags
+     *
+     * @param stack Item Stack
+     * @param other Other Item Stack
+     * @return True if the Item Stacks can be merged together, False otherwise
+     */
+    private static boolean canMerge(ItemStack stack, ItemStack other) {
+        return !stack.isEmpty()
+            && ItemStack.areItemsEqual(stack, other)
+            && ItemStack.areItemStackTagsEqual(stack, other);
+    }
+
+    /**
+     * Check if a Slot can be used for Bundle actions
+     *
+     * @param slot   Slot
+     * @param player Player
+     * @return True if the Slot can be used, False otherwise
+     */
+    private static boolean isUsable(Slot slot, PlayerEntity player) {
+        return slot != null
+            && player != null
+            && !(slot instanceof CraftingResultSlot)
+            && slot.canTakeStack(player)
+            && slot.isEnabled();
+    }
+
+    /**
+     * Check if the Slot Item Stack can be put inside the held Bundle
+     *
+     * @param container Container
+     * @param slot      Slot
+     * @param heldStack Held Item Stack
+     * @return True if the Slot Item Stack can be put inside the Bundle, False otherwise
+     */
+    private static boolean canFill(Container container, Slot slot, ItemStack heldStack) {
+        return slot.getHasStack()
+            && BundleItemUtils.isBundle(heldStack)
+            && container.canMergeSlot(heldStack, slot)
+            && slot.isItemValid(heldStack)
+            && BundleItemUtils.canAddItemStackToBundle(heldStack, slot.getStack());
+    }
+
+    /**
+     * Check if an Item Stack can be taken out of the held Bundle into the Slot
+     *
+     * @param container Container
+     * @param slot      Slot
+     * @param heldStack Held Item Stack
+     * @return True if an Item Stack can be taken out of the Bundle, False otherwise
+     */
+    private static boolean canExtract(Container container, Slot slot, ItemStack heldStack) {
+        return !slot.getHasStack()
+            && BundleItemUtils.isBundle(heldStack)
+            && container.canMergeSlot(heldStack, slot)
+            && slot.isItemValid(heldStack)
+            && !BundleItemUtils.isEmpty(heldStack);
+    }
+
+    /**
+     * Get the Id the server uses for a Slot.
+     * The Creative inventory Slots are identified
+     * by their index inside the Player inventory
+     *
+     * @param container Container
+     * @param slot      Slot
+     * @param player    Player
+     * @return Slot Id
+     */
+    private static int getSlotId(Container container, Slot slot, PlayerEntity player) {
+        if (player.isCreative() && container instanceof CreativeScreen.CreativeContainer && slotIndexGetter != null) {
+            try {
+                return (int) slotIndexGetter.invokeExact(slot);
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+        }
+        return slot.slotNumber;
+    }
+}
@@ -0,0 +1,46 @@
+package com.bundles.init;
+
+import net.minecraftforge.common.ForgeConfigSpec;
+
+/**
+ * Bundle Config
+ *
+ * @author JimiIT92
+ */
+public final class BundleConfig {
+
+    /**
+     * Server Config Spec
+     */
+    public static final ForgeConfigSpec SERVER_SPEC;
+    /**
+     * Max Bundle operations processed every tick, shared by every Player
+     */
+    public static final ForgeConfigSpec.IntValue MAX_OPERATIONS_PER_TICK;
+    /**
+     * Max Bundle Messages waiting to be processed for each Player
+     */
+    public static final ForgeConfigSpec.IntValue MAX_QUEUED_MESSAGES;
+    /**
+     * Max levels of Bundles inside other Bundles
+     */
+    public static final ForgeConfigSpec.IntValue MAX_NESTING_DEPTH;
+
+    static {
+        ForgeConfigSpec.Builder builder = new ForgeConfigSpec.Builder();
+        builder.comment("Bundle Messages limits").push("network");
+        MAX_OPERATIONS_PER_TICK = builder
+            .comment("Max Bundle operations processed every tick, shared by every Player. Every Slot of a Message counts as one operation")
+            .defineInRange("maxOperationsPerTick", 64, 1, 4096);
+        MAX_QUEUED_MESSAGES = builder
+            .comment("Max Bundle Messages waiting to be processed for each Player. Messages over this limit are dropped")
+            .defineInRange("maxQueuedMessages", 64, 1, 1024);
+        builder.pop();
+        builder.comment("Bundle contents").push("contents");
+        MAX_NESTING_DEPTH = builder
+            .comment("Max levels of Bundles inside other Bundles. 0 doesn't allow Bundles inside Bundles")
+            .defineInRange("maxNestingDepth", 2, 0, 8);
+        builder.pop();
+        SERVER_SPEC = builder.build();
+    }
+}
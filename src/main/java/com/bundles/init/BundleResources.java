@@ -22,13 +22,32 @@ public final class BundleResources {
      */
     public static final ResourceLocation BUNDLE_FULL_NBT_RESOURCE_LOCATION = new ResourceLocation(MOD_ID, "bundle_full");
     /**
-     * Bundle Items NBT Tag Resource Location
+     * Bundle Items NBT Tag Resource Location,
+     * only read from old Bundles
      */
     public static final String BUNDLE_ITEMS_LIST_NBT_RESOURCE_LOCATION = "bundle_items";
     /**
-     * Max Bundle Items Count
+     * Bundle Items Palette NBT Tag Resource Location
+     */
+    public static final String BUNDLE_PALETTE_NBT_RESOURCE_LOCATION = "bundle_palette";
+    /**
+     * Bundle Items Counts NBT Tag Resource Location
+     */
+    public static final String BUNDLE_COUNTS_NBT_RESOURCE_LOCATION = "bundle_counts";
+    /**
+     * Bundle Contents Header NBT Tag Resource Location
+     */
+    public static final String BUNDLE_HEADER_NBT_RESOURCE_LOCATION = "bundle_header";
+    /**
+     * Max Bundle weight.
+     * An Item weighs 64 divided by its max stack size,
+     * so a full Bundle holds as many Items as a stack
      */
     public static final int MAX_BUNDLE_ITEMS = 64;
+    /**
+     * Weight of an empty Bundle put inside another Bundle
+     */
+    public static final int BUNDLE_WEIGHT = 4;
     /**
      * Network Channel
      */
@@ -41,10 +60,14 @@ public final class BundleResources {
      * Bundle Client Message ID
      */
     public static final byte BUNDLE_CLIENT_MESSAGE_ID = 2;
+    /**
+     * Bundle Resync Message ID
+     */
+    public static final byte BUNDLE_RESYNC_MESSAGE_ID = 3;
     /**
      * Message Protocol Version
      */
-    public static final String MESSAGE_PROTOCOL_VERSION = "1.3";
+    public static final String MESSAGE_PROTOCOL_VERSION = "1.4";
     /**
      * Network Resource Location
      */
@@ -57,4 +80,9 @@ public final class BundleResources {
      * Bundle Ignored Items Tag
      */
     public static final ResourceLocation BUNDLE_IGNORED_ITEMS_TAG = new ResourceLocation(MOD_ID, "bundle_ignored_items");
+    /**
+     * Bundle Weight Tags prefix.
+     * Items inside bundle_weight/N weigh N
+     */
+    public static final String BUNDLE_WEIGHT_TAG_PREFIX = "bundle_weight/";
 }
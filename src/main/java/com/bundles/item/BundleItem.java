@@ -1,10 +1,16 @@
 package com.bundles.item;
 
 import com.bundles.init.BundleResources;
+import com.bundles.profiling.BundleFrameStats;
+import com.bundles.util.BundleItemHandler;
 import com.bundles.util.BundleItemUtils;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemGroup;
 import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraftforge.common.capabilities.ICapabilityProvider;
+
+import javax.annotation.Nullable;
 
 /**
  * Bundle Item
@@ -61,7 +67,10 @@ public class BundleItem extends Item {
      */
     @Override
     public boolean showDurabilityBar(ItemStack stack) {
-        return !BundleItemUtils.isEmpty(stack) && !BundleItemUtils.isFull(stack);
+        long startTime = BundleFrameStats.start();
+        boolean showDurabilityBar = !BundleItemUtils.isEmpty(stack) && !BundleItemUtils.isFull(stack);
+        BundleFrameStats.stop(startTime);
+        return showDurabilityBar;
     }
 
     /**
@@ -73,7 +82,10 @@ public class BundleItem extends Item {
      */
     @Override
     public int getDamage(ItemStack stack) {
-        return getMaxDamage(stack) - BundleItemUtils.getBundleItemsCount(stack);
+        long startTime = BundleFrameStats.start();
+        int damage = getMaxDamage(stack) - BundleItemUtils.getBundleWeight(stack);
+        BundleFrameStats.stop(startTime);
+        return damage;
     }
 
     /**
@@ -88,4 +100,17 @@ public class BundleItem extends Item {
     public boolean isDamaged(ItemStack stack) {
         return false;
     }
+
+    /**
+     * Attach the Item Handler capability,
+     * so automation can access the Bundle contents
+     *
+     * @param stack Bundle Item Stack
+     * @param nbt Capabilities NBT
+     * @return Bundle Item Handler
+     */
+    @Override
+    public ICapabilityProvider initCapabilities(ItemStack stack, @Nullable CompoundNBT nbt) {
+        return new BundleItemHandler(stack);
+    }
 }
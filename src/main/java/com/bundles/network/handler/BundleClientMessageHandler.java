@@ -2,14 +2,20 @@ package com.bundles.network.handler;
 
 import com.bundles.init.BundleResources;
 import com.bundles.network.message.BundleClientMessage;
+import com.bundles.network.message.BundleResyncMessage;
+import com.bundles.util.BundleContents;
+import com.bundles.util.BundleItemUtils;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.entity.player.ClientPlayerEntity;
+import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.inventory.container.Container;
 import net.minecraft.inventory.container.Slot;
+import net.minecraft.item.ItemStack;
 import net.minecraft.util.SoundEvents;
 import net.minecraftforge.fml.LogicalSide;
 import net.minecraftforge.fml.network.NetworkEvent;
 
+import java.util.List;
 import java.util.function.Supplier;
 
 /**
@@ -46,29 +52,148 @@ public class BundleClientMessageHandler {
             return;
         }
 
-        context.enqueueWork(() -> processMessage(message, playerEntity));
+        context.enqueueWork(() -> BundlePredictions.onReply(message, playerEntity));
     }
 
     /**
-     * Process the Message
+     * Apply the changes of a Message.
+     * The changes are applied only if the local Bundle is
+     * at the revision they start from. If the local Bundle
+     * doesn't end up matching the server one, or the Message
+     * names Slots the Container doesn't have, the whole
+     * Container is requested again
      *
      * @param message Message
      * @param player Player
      */
-    private static void processMessage(BundleClientMessage message, ClientPlayerEntity player) {
+    static void applyMessage(BundleClientMessage message, PlayerEntity player) {
+        if (message.rejected) {
+            return;
+        }
         Container container = player.openContainer;
-        Slot slot = container.getSlot(message.slotId);
-        slot.putStack(message.slotStack);
-//        slot.getStack().cooldown
-        if(message.empty) {
-            if(message.playEmptySound) {
+        if (!hasSlots(container, message.slotIds) || message.slotCounts.length < getCountedSlots(message)) {
+            BundleResources.NETWORK.sendToServer(new BundleResyncMessage());
+            return;
+        }
+        ItemStack bundle;
+        if (message.action == BundleClientMessage.Action.EMPTY) {
+            bundle = message.slotIds.length > 0 ? container.getSlot(message.slotIds[0]).getStack() : ItemStack.EMPTY;
+        } else {
+            bundle = player.inventory.getItemStack();
+        }
+        if (!BundleItemUtils.isBundle(bundle)) {
+            if (message.revision != 0) {
+                BundleResources.NETWORK.sendToServer(new BundleResyncMessage());
+            }
+            return;
+        }
+        BundleContents contents = BundleContents.of(bundle);
+        if (contents.getRevision() == message.baseRevision) {
+            if (message.action == BundleClientMessage.Action.REMOVE) {
+                for (int i = 0; i < message.changes.size(); i++) {
+                    ItemStack removed = contents.getItems().get(message.changes.getIndex(i)).copy();
+                    message.changes.applyTo(contents, i);
+                    if (i < message.slotIds.length) {
+                        container.getSlot(message.slotIds[i]).putStack(removed);
+                    }
+                }
+            } else if (message.action == BundleClientMessage.Action.EMPTY && message.slotIds.length > 1) {
+                applyEmptiedSlots(message, container, contents.empty());
+            } else {
+                message.changes.applyTo(contents);
+            }
+            contents.commit();
+        }
+        if (contents.getRevision() != message.revision || contents.getItemsCount() != message.itemsCount) {
+            BundleResources.NETWORK.sendToServer(new BundleResyncMessage());
+            return;
+        }
+        if (message.action == BundleClientMessage.Action.ADD) {
+            for (int i = 0; i < message.slotIds.length; i++) {
+                Slot slot = container.getSlot(message.slotIds[i]);
+                ItemStack slotStack = slot.getStack();
+                slotStack.setCount(message.slotCounts[i]);
+                slot.putStack(slotStack.isEmpty() ? ItemStack.EMPTY : slotStack);
+            }
+        }
+        player.inventory.markDirty();
+    }
+
+    /**
+     * Check if every Slot of a Message is inside the Container
+     *
+     * @param container Container
+     * @param slotIds Slot Ids
+     * @return True if every Slot exists, False otherwise
+     */
+    private static boolean hasSlots(Container container, int[] slotIds) {
+        for (int slotId : slotIds) {
+            if (slotId < 0 || slotId >= container.inventorySlots.size()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get how many Slots of a Message come with an Item count
+     *
+     * @param message Message
+     * @return Slots with an Item count
+     */
+    private static int getCountedSlots(BundleClientMessage message) {
+        return message.action == BundleClientMessage.Action.REMOVE ? 0 : message.slotIds.length;
+    }
+
+    /**
+     * Put the Item Stacks taken out of an emptied Bundle
+     * into the Slots the server changed, up to the counts
+     * the server sent. The first Slot is the Bundle one
+     *
+     * @param message Message
+     * @param container Container
+     * @param items Item Stacks taken out of the Bundle
+     */
+    private static void applyEmptiedSlots(BundleClientMessage message, Container container, List<ItemStack> items) {
+        for (int i = 1; i < message.slotIds.length; i++) {
+            Slot slot = container.getSlot(message.slotIds[i]);
+            ItemStack slotStack = slot.getStack();
+            int missing = message.slotCounts[i] - slotStack.getCount();
+            for (int j = 0; j < items.size() && missing > 0; j++) {
+                ItemStack item = items.get(j);
+                if (item.isEmpty() || (!slotStack.isEmpty() && !Container.areItemsAndTagsEqual(slotStack, item))) {
+                    continue;
+                }
+                int moved = Math.min(missing, item.getCount());
+                if (slotStack.isEmpty()) {
+                    slotStack = item.split(moved);
+                } else {
+                    slotStack.grow(moved);
+                    item.shrink(moved);
+                }
+                missing -= moved;
+            }
+            slot.putStack(slotStack);
+        }
+    }
+
+    /**
+     * Play the sound of a Bundle action
+     *
+     * @param message Message
+     * @param player Player
+     */
+    static void playSound(BundleClientMessage message, PlayerEntity player) {
+        if (message.rejected) {
+            return;
+        }
+        if (message.action == BundleClientMessage.Action.EMPTY) {
+            if (message.playEmptySound) {
                 player.playSound(SoundEvents.BLOCK_WOOL_BREAK, 1.0F, 1.0F);
             }
         } else {
             player.playSound(SoundEvents.ITEM_ARMOR_EQUIP_LEATHER, 1.0F, 1.0F);
-            player.inventory.setItemStack(message.bundle);
         }
-        player.inventory.markDirty();
     }
 
 }
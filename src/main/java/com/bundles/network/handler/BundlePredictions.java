@@ -0,0 +1,229 @@
+package com.bundles.network.handler;
+
+import com.bundles.init.BundleResources;
+import com.bundles.network.message.BundleClientMessage;
+import com.bundles.network.message.BundleResyncMessage;
+import com.bundles.network.message.BundleServerMessage;
+import net.minecraft.client.gui.screen.inventory.CreativeScreen;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.inventory.container.Container;
+import net.minecraft.item.ItemStack;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Bundle Predictions.
+ * Applies Bundle actions on the client as soon as they
+ * are sent and matches them against the server answers.
+ * Only the actions the server didn't agree with, and the
+ * ones that came after them, are rolled back
+ *
+ * @author JimiIT92
+ */
+public final class BundlePredictions {
+
+    /**
+     * Predictions waiting for a server answer, oldest first
+     */
+    private static final Deque<Prediction> PENDING = new ArrayDeque<>();
+    /**
+     * Messages whose prediction has been answered, ready to be reused
+     */
+    private static final Deque<BundleServerMessage> FREE_MESSAGES = new ArrayDeque<>();
+    /**
+     * Max Messages kept for reuse
+     */
+    private static final int MAX_FREE_MESSAGES = 16;
+    /**
+     * Last sequence number sent to the server
+     */
+    private static int lastSequence = 0;
+    /**
+     * Window Id a resync has already been asked for,
+     * because a reply for it came after it was closed
+     */
+    private static int resyncedWindowId = -1;
+
+    /**
+     * Bundle action applied on the client
+     * and not yet answered by the server
+     */
+    private static final class Prediction {
+
+        /**
+         * Message sent to the server
+         */
+        private final BundleServerMessage message;
+        /**
+         * Window Id of the Container the action was done in
+         */
+        private final int windowId;
+        /**
+         * Bundle Item Stack before the action
+         */
+        private ItemStack bundleBefore;
+        /**
+         * Ids of the Slots saved before the action
+         */
+        private int[] savedSlotIds;
+        /**
+         * Item Stack of each saved Slot before the action
+         */
+        private ItemStack[] slotsBefore;
+        /**
+         * Predicted result
+         */
+        private BundleClientMessage result;
+
+        /**
+         * Constructor
+         *
+         * @param message  Message sent to the server
+         * @param windowId Window Id of the Container
+         */
+        private Prediction(BundleServerMessage message, int windowId) {
+            this.message = message;
+            this.windowId = windowId;
+        }
+
+        /**
+         * Apply the action on the client,
+         * remembering what it changed.
+         * Emptying a Bundle can change any Slot,
+         * so every Slot is saved
+         *
+         * @param player Player
+         */
+        private void apply(PlayerEntity player) {
+            savedSlotIds = message.empty ? IntStream.range(0, player.openContainer.inventorySlots.size()).toArray() : message.slotIds;
+            slotsBefore = new ItemStack[savedSlotIds.length];
+            for (int i = 0; i < slotsBefore.length; i++) {
+                slotsBefore[i] = player.openContainer.getSlot(savedSlotIds[i]).getStack().copy();
+            }
+            bundleBefore = message.empty ? ItemStack.EMPTY : player.inventory.getItemStack().copy();
+            result = BundleServerMessageHandler.processMessage(message, player);
+        }
+
+        /**
+         * Put back the Item Stacks changed by the action
+         *
+         * @param player Player
+         */
+        private void restore(PlayerEntity player) {
+            for (int i = slotsBefore.length - 1; i >= 0; i--) {
+                player.openContainer.getSlot(savedSlotIds[i]).putStack(slotsBefore[i]);
+            }
+            if (!message.empty) {
+                player.inventory.setItemStack(bundleBefore);
+            }
+        }
+    }
+
+    /**
+     * Get a Message to send, reusing the ones
+     * whose prediction has already been answered
+     *
+     * @param slotsCount How many Slots the Message acts on
+     * @return Message
+     */
+    public static BundleServerMessage obtainMessage(int slotsCount) {
+        BundleServerMessage message = FREE_MESSAGES.pollFirst();
+        if (message == null) {
+            message = new BundleServerMessage();
+        }
+        if (message.slotIds.length != slotsCount) {
+            message.slotIds = new int[slotsCount];
+        }
+        message.bundle = ItemStack.EMPTY;
+        message.empty = false;
+        message.reversed = false;
+        return message;
+    }
+
+    /**
+     * Forget a prediction, keeping its Message for reuse
+     *
+     * @param prediction Prediction
+     */
+    private static void release(Prediction prediction) {
+        if (FREE_MESSAGES.size() < MAX_FREE_MESSAGES) {
+            FREE_MESSAGES.addLast(prediction.message);
+        }
+    }
+
+    /**
+     * Send a Bundle action to the server and apply it right away
+     *
+     * @param message Message
+     * @param player  Player
+     */
+    public static void predict(BundleServerMessage message, PlayerEntity player) {
+        Container container = player.openContainer;
+        message.sequence = ++lastSequence;
+        if (player.isCreative() && container instanceof CreativeScreen.CreativeContainer) {
+            message.bundle = (message.empty ? container.getSlot(message.slotIds[0]).getStack() : player.inventory.getItemStack()).copy();
+        } else {
+            message.bundle = ItemStack.EMPTY;
+        }
+        BundleResources.NETWORK.sendToServer(message);
+        Prediction prediction = new Prediction(message, container.windowId);
+        prediction.apply(player);
+        PENDING.addLast(prediction);
+        BundleClientMessageHandler.playSound(prediction.result, player);
+    }
+
+    /**
+     * Handle a server answer.
+     * Confirmed predictions are simply forgotten. Otherwise
+     * every pending prediction is rolled back, the server
+     * changes are applied and the predictions the server
+     * didn't answer yet are applied again on top of them.
+     * Predictions and answers for a Container that has been
+     * closed are dropped, asking once for the open Container
+     * to be sent again
+     *
+     * @param message Server Message
+     * @param player  Player
+     */
+    public static void onReply(BundleClientMessage message, PlayerEntity player) {
+        int windowId = player.openContainer.windowId;
+        while (!PENDING.isEmpty() && PENDING.peekFirst().windowId != windowId) {
+            release(PENDING.removeFirst());
+        }
+        if (message.windowId != windowId) {
+            if (!message.rejected && resyncedWindowId != message.windowId) {
+                resyncedWindowId = message.windowId;
+                BundleResources.NETWORK.sendToServer(new BundleResyncMessage());
+            }
+            return;
+        }
+        Prediction head = PENDING.peekFirst();
+        if (head == null || head.message.sequence > message.sequence) {
+            BundleClientMessageHandler.applyMessage(message, player);
+            BundleClientMessageHandler.playSound(message, player);
+            return;
+        }
+        if (head.message.sequence == message.sequence && head.result.isSameResult(message)) {
+            release(PENDING.removeFirst());
+            return;
+        }
+        List<Prediction> pending = new ArrayList<>(PENDING);
+        PENDING.clear();
+        for (int i = pending.size() - 1; i >= 0; i--) {
+            pending.get(i).restore(player);
+        }
+        BundleClientMessageHandler.applyMessage(message, player);
+        for (Prediction prediction : pending) {
+            if (prediction.message.sequence > message.sequence) {
+                prediction.apply(player);
+                PENDING.addLast(prediction);
+            } else {
+                release(prediction);
+            }
+        }
+    }
+}
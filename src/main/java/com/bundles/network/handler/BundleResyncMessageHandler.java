@@ -0,0 +1,57 @@
+package com.bundles.network.handler;
+
+import com.bundles.network.message.BundleResyncMessage;
+import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraft.inventory.container.Container;
+import net.minecraft.inventory.container.PlayerContainer;
+import net.minecraftforge.fml.LogicalSide;
+import net.minecraftforge.fml.network.NetworkEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * @author JimiIT92
+ */
+public class BundleResyncMessageHandler {
+
+    /**
+     * Handle messages
+     *
+     * @param message     Message
+     * @param ctxSupplier Context Supplier
+     */
+    public static void onMessageReceived(final BundleResyncMessage message, Supplier<NetworkEvent.Context> ctxSupplier) {
+        NetworkEvent.Context context = ctxSupplier.get();
+        LogicalSide side = context.getDirection().getReceptionSide();
+        context.setPacketHandled(true);
+
+        if (!side.isServer()) {
+            return;
+        }
+
+        final ServerPlayerEntity playerEntity = context.getSender();
+        if (playerEntity == null) {
+            return;
+        }
+
+        BundleServerMessageQueue.requestResync(playerEntity);
+    }
+
+    /**
+     * Send the whole open Container and the
+     * held Item Stack back to the Player.
+     * Creative Players' held Item Stack is only known
+     * by the client, so it is left untouched.
+     * Called by the Message queue, which limits how often
+     * each Player is sent its Container
+     *
+     * @param playerEntity Player
+     */
+    static void resync(ServerPlayerEntity playerEntity) {
+        Container container = playerEntity.openContainer;
+        if (playerEntity.isCreative() && container instanceof PlayerContainer) {
+            return;
+        }
+        playerEntity.sendAllContents(container, container.getInventory());
+    }
+}
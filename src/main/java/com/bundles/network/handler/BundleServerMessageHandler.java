@@ -3,17 +3,25 @@ package com.bundles.network.handler;
 import com.bundles.init.BundleResources;
 import com.bundles.network.message.BundleClientMessage;
 import com.bundles.network.message.BundleServerMessage;
+import com.bundles.profiling.BundleFlightRecorder;
+import com.bundles.profiling.BundleProfiler;
+import com.bundles.util.BundleContents;
+import com.bundles.util.BundleContentsChanges;
 import com.bundles.util.BundleItemUtils;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.player.ServerPlayerEntity;
 import net.minecraft.inventory.container.Container;
+import net.minecraft.inventory.container.CraftingResultSlot;
 import net.minecraft.inventory.container.PlayerContainer;
 import net.minecraft.inventory.container.Slot;
 import net.minecraft.item.ItemStack;
 import net.minecraftforge.fml.LogicalSide;
 import net.minecraftforge.fml.network.NetworkEvent;
-import net.minecraftforge.fml.network.PacketDistributor;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.function.Supplier;
 
 /**
@@ -51,41 +59,217 @@ public class BundleServerMessageHandler {
             return;
         }
 
-        context.enqueueWork(() -> processMessage(message, playerEntity));
+        BundleServerMessageQueue.enqueue(playerEntity, message);
     }
 
     /**
-     * Process the Message
+     * Process the Message.
+     * Runs on the server to apply the action and on the
+     * client to predict it
      *
      * @param message      Message
      * @param playerEntity Player
+     * @return Message describing the result of the action
      */
-    public static void processMessage(BundleServerMessage message, PlayerEntity playerEntity) {
+    public static BundleClientMessage processMessage(BundleServerMessage message, PlayerEntity playerEntity) {
+        return processMessages(Collections.singletonList(message), playerEntity).get(0);
+    }
+
+    /**
+     * Process Messages acting on the same Bundle.
+     * The server applies them to its own copy of the Bundle
+     * and only sends back the changed entries. Every Slot
+     * of every Message is processed inside a single Bundle
+     * transaction, while each Message still gets its own
+     * answer and revision, as if processed alone.
+     * Only the first Message can clear the Bundle
+     *
+     * @param messages     Messages
+     * @param playerEntity Player
+     * @return Messages describing the result of each action
+     */
+    public static List<BundleClientMessage> processMessages(List<BundleServerMessage> messages, PlayerEntity playerEntity) {
         Container container = playerEntity.openContainer;
-        Slot slot = container.getSlot(message.slotId);
-        ItemStack slotStack = slot.getStack();
-        boolean playEmptySound = false;
-        if (message.empty) {
-            playEmptySound = !BundleItemUtils.isEmpty(message.bundle);
-            BundleItemUtils.emptyBundle(message.bundle, playerEntity);
-            slotStack = message.bundle;
+        BundleServerMessage first = messages.get(0);
+        Slot firstSlot = getSlot(container, first.slotIds, 0);
+        boolean clientHeldStack = !playerEntity.world.isRemote && playerEntity.isCreative() && container instanceof PlayerContainer;
+        ItemStack bundle;
+        if (clientHeldStack) {
+            bundle = first.bundle;
+        } else if (first.empty) {
+            bundle = firstSlot == null ? ItemStack.EMPTY : firstSlot.getStack();
         } else {
-            if (slotStack.isEmpty()) {
-                slotStack = BundleItemUtils.removeFirstItemStack(message.bundle, message.reversed);
+            bundle = playerEntity.inventory.getItemStack();
+        }
+        List<BundleClientMessage> replies = new ArrayList<>(messages.size());
+        if (!BundleItemUtils.isBundle(bundle) || (first.empty && firstSlot == null)) {
+            for (BundleServerMessage message : messages) {
+                replies.add(new BundleClientMessage(message.sequence, container.windowId, new int[0], getAction(container, message), new int[0], 0, 0, 0,
+                    new BundleContentsChanges(), false));
+            }
+            return replies;
+        }
+        BundleContents contents = BundleContents.of(bundle);
+        int revisions = 0;
+        for (BundleServerMessage message : messages) {
+            Object event = BundleFlightRecorder.beginMessage();
+            IntArrayList slotIds = new IntArrayList();
+            IntArrayList slotCounts = new IntArrayList();
+            BundleClientMessage.Action action = getAction(container, message);
+            int firstChange = contents.getChanges().size();
+            int baseRevision = contents.getRevision(revisions);
+            boolean playEmptySound = false;
+            boolean usable = canUseSlots(message, container, playerEntity, bundle, action);
+            if (usable && action == BundleClientMessage.Action.EMPTY) {
+                playEmptySound = !contents.isEmpty();
+                slotIds.add(message.slotIds[0]);
+                slotCounts.add(bundle.getCount());
+                if (!isCreativeInventory(container, playerEntity)) {
+                    BundleItemUtils.emptyBundle(contents, playerEntity, container, firstSlot, slotIds, slotCounts);
+                } else if (playerEntity.world.isRemote) {
+                    // The Creative inventory Slots don't match the server ones,
+                    // so the Item Stacks reach the client through the Container sync
+                    contents.empty();
+                } else {
+                    BundleItemUtils.emptyBundle(contents, playerEntity);
+                }
+                firstSlot.putStack(bundle);
+            } else if (usable) {
+                processSlots(message, container, playerEntity, contents, action, slotIds, slotCounts);
+            }
+            BundleContentsChanges changes = action == BundleClientMessage.Action.EMPTY
+                ? contents.getChanges()
+                : contents.getChanges().copyRange(firstChange, contents.getChanges().size());
+            if (changes.isEmptied() || changes.size() > 0) {
+                revisions++;
+            }
+            BundleClientMessage reply = new BundleClientMessage(message.sequence, container.windowId, slotIds.toIntArray(), action, slotCounts.toIntArray(),
+                baseRevision, contents.getRevision(revisions), contents.getItemsCount(), changes, playEmptySound);
+            BundleFlightRecorder.endMessage(event, message.slotIds.length > 0 ? message.slotIds[0] : -1, reply);
+            replies.add(reply);
+        }
+        contents.commit(revisions);
+        return replies;
+    }
+
+    /**
+     * Put the Slots Item Stacks inside the Bundle,
+     * or take Item Stacks out of the Bundle into the Slots.
+     * An Item Stack is only taken out if the Slot accepts it
+     * whole, otherwise it stays inside the Bundle.
+     * Each Slot is sampled by the profiler as one operation
+     *
+     * @param message    Message
+     * @param container  Container
+     * @param player     Player
+     * @param contents   Bundle Contents
+     * @param action     Bundle action
+     * @param slotIds    Ids of the changed Slots
+     * @param slotCounts Item count inside each changed Slot
+     */
+    private static void processSlots(BundleServerMessage message, Container container, PlayerEntity player, BundleContents contents,
+                                     BundleClientMessage.Action action, IntArrayList slotIds, IntArrayList slotCounts) {
+        for (int i = 0; i < message.slotIds.length; i++) {
+            Slot slot = getSlot(container, message.slotIds, i);
+            if (slot == null) {
+                continue;
+            }
+            long startTime = BundleProfiler.startTimer();
+            ItemStack slotStack = slot.getStack();
+            if (action == BundleClientMessage.Action.REMOVE) {
+                if (!slotStack.isEmpty()) {
+                    continue;
+                }
+                ItemStack nextStack = contents.peekFirst(message.reversed);
+                if (nextStack.isEmpty()) {
+                    break;
+                }
+                if (!slot.isItemValid(nextStack) || nextStack.getCount() > slot.getItemStackLimit(nextStack)) {
+                    continue;
+                }
+                slotStack = contents.removeFirst(message.reversed);
+                BundleProfiler.record(BundleProfiler.Operation.REMOVE, player, startTime);
+            } else if (slotStack.isEmpty() || contents.add(slotStack) == 0) {
+                continue;
             } else {
-                BundleItemUtils.addItemStackToBundle(playerEntity.inventory.getItemStack(), slotStack);
+                BundleProfiler.record(BundleProfiler.Operation.ADD, player, startTime);
+            }
+            slot.putStack(slotStack);
+            slotIds.add(message.slotIds[i]);
+            slotCounts.add(slotStack.getCount());
+        }
+    }
+
+    /**
+     * Check if every Slot of a Message can be used.
+     * The client only sends usable Slots, so a Message
+     * with any other Slot is rejected as a whole
+     *
+     * @param message   Message
+     * @param container Container
+     * @param player    Player
+     * @param bundle    Bundle Item Stack
+     * @param action    Bundle action
+     * @return True if every Slot can be used, False otherwise
+     */
+    private static boolean canUseSlots(BundleServerMessage message, Container container, PlayerEntity player,
+                                       ItemStack bundle, BundleClientMessage.Action action) {
+        if (action == BundleClientMessage.Action.EMPTY && message.slotIds.length > 1) {
+            return false;
+        }
+        for (int i = 0; i < message.slotIds.length; i++) {
+            Slot slot = getSlot(container, message.slotIds, i);
+            if (slot == null) {
+                continue;
             }
-            if (!playerEntity.isCreative() || !(container instanceof PlayerContainer)) {
-                playerEntity.inventory.setItemStack(message.bundle);
+            if (slot instanceof CraftingResultSlot || !slot.isEnabled() || !slot.canTakeStack(player)
+                || (action != BundleClientMessage.Action.EMPTY && (!slot.isItemValid(bundle) || !container.canMergeSlot(bundle, slot)))) {
+                return false;
             }
         }
-        slot.putStack(slotStack);
+        return true;
+    }
 
-        if (playerEntity instanceof ServerPlayerEntity) {
-            BundleResources.NETWORK.send(PacketDistributor.PLAYER.with(() -> (ServerPlayerEntity) playerEntity), new BundleClientMessage(message.bundle, message.slotId, slotStack, message.empty, playEmptySound));
-            ((ServerPlayerEntity) playerEntity).isChangingQuantityOnly = false;
-            ((ServerPlayerEntity) playerEntity).updateHeldItem();
+    /**
+     * Check if the Player is using the Creative inventory,
+     * whose Slots are different on the client and the server
+     *
+     * @param container Container
+     * @param player    Player
+     * @return True if the Container is the Creative inventory, False otherwise
+     */
+    private static boolean isCreativeInventory(Container container, PlayerEntity player) {
+        return player.isCreative() && container.windowId == player.container.windowId;
+    }
 
+    /**
+     * Get the action of a Message
+     *
+     * @param container Container
+     * @param message   Message
+     * @return Bundle action
+     */
+    private static BundleClientMessage.Action getAction(Container container, BundleServerMessage message) {
+        if (message.empty) {
+            return BundleClientMessage.Action.EMPTY;
+        }
+        Slot firstSlot = getSlot(container, message.slotIds, 0);
+        return firstSlot == null || firstSlot.getHasStack() ? BundleClientMessage.Action.ADD : BundleClientMessage.Action.REMOVE;
+    }
+
+    /**
+     * Get a Slot of a Container
+     *
+     * @param container Container
+     * @param slotIds   Slot Ids
+     * @param index     Slot Id index
+     * @return Slot or null if the Slot Id is not valid
+     */
+    private static Slot getSlot(Container container, int[] slotIds, int index) {
+        if (index >= slotIds.length) {
+            return null;
         }
+        int slotId = slotIds[index];
+        return slotId >= 0 && slotId < container.inventorySlots.size() ? container.getSlot(slotId) : null;
     }
 }
@@ -0,0 +1,405 @@
+package com.bundles.network.handler;
+
+import com.bundles.init.BundleConfig;
+import com.bundles.init.BundleResources;
+import com.bundles.network.message.BundleClientMessage;
+import com.bundles.network.message.BundleServerMessage;
+import com.bundles.profiling.BundleMetrics;
+import com.bundles.profiling.BundleProfiler;
+import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.network.PacketDistributor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bundle Server Message Queue.
+ * Holds the Bundle Messages of each Player until the end
+ * of the server tick, then processes them within the
+ * configured operations budget. The budget is shared by
+ * every Player, round-robin, starting from a different
+ * Player every tick. Consecutive Messages acting on the
+ * held Bundle are processed together. Resync requests are
+ * coalesced, so each Player gets at most one Container
+ * resync every few ticks, after its Messages
+ *
+ * @author JimiIT92
+ */
+@Mod.EventBusSubscriber(modid = BundleResources.MOD_ID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public final class BundleServerMessageQueue {
+
+    /**
+     * Logger
+     */
+    private static final Logger LOGGER = LogManager.getLogger();
+    /**
+     * Min ticks between two resyncs of the same Player
+     */
+    private static final int RESYNC_COOLDOWN_TICKS = 10;
+    /**
+     * Queue of each Player
+     */
+    private static final Map<UUID, PlayerQueue> QUEUES = new ConcurrentHashMap<>();
+    /**
+     * Messages waiting to be processed, across every Player
+     */
+    private static final AtomicInteger QUEUE_DEPTH = new AtomicInteger();
+    /**
+     * Players waiting for a resync
+     */
+    private static final AtomicInteger PENDING_RESYNCS = new AtomicInteger();
+    /**
+     * Messages processed
+     */
+    private static final LongAdder PROCESSED = new LongAdder();
+    /**
+     * Messages left for a later tick because the budget ran out
+     */
+    private static final LongAdder DEFERRED = new LongAdder();
+    /**
+     * Messages dropped because the Player queue was full or could not be processed
+     */
+    private static final LongAdder DROPPED = new LongAdder();
+    /**
+     * Player the next tick starts from
+     */
+    private static int nextPlayer;
+    /**
+     * Server ticks counted so far
+     */
+    private static int ticks;
+
+    /**
+     * Messages sent by a Player
+     */
+    private static final class PlayerQueue {
+
+        /**
+         * Player. Replaced when the Player respawns
+         */
+        private volatile ServerPlayerEntity player;
+        /**
+         * Messages waiting to be processed
+         */
+        private final Queue<BundleServerMessage> messages = new ConcurrentLinkedQueue<>();
+        /**
+         * How many Messages are waiting
+         */
+        private final AtomicInteger size = new AtomicInteger();
+        /**
+         * If the Player asked for a resync
+         */
+        private final AtomicBoolean resync = new AtomicBoolean();
+        /**
+         * First tick the next resync can be sent at
+         */
+        private int nextResyncTick;
+
+        /**
+         * Constructor
+         *
+         * @param player Player
+         */
+        private PlayerQueue(ServerPlayerEntity player) {
+            this.player = player;
+        }
+    }
+
+    /**
+     * Queue a Message received from a Player.
+     * Called from the network thread
+     *
+     * @param player  Player
+     * @param message Message
+     */
+    public static void enqueue(ServerPlayerEntity player, BundleServerMessage message) {
+        PlayerQueue queue = QUEUES.computeIfAbsent(player.getUniqueID(), id -> new PlayerQueue(player));
+        queue.player = player;
+        if (queue.size.incrementAndGet() > BundleConfig.MAX_QUEUED_MESSAGES.get()) {
+            queue.size.decrementAndGet();
+            DROPPED.increment();
+            reject(player, message);
+            return;
+        }
+        queue.messages.add(message);
+        QUEUE_DEPTH.incrementAndGet();
+    }
+
+    /**
+     * Ask for the whole open Container of a Player to be sent again.
+     * Requests made while one is pending are merged into it.
+     * Called from the network thread
+     *
+     * @param player Player
+     */
+    public static void requestResync(ServerPlayerEntity player) {
+        PlayerQueue queue = QUEUES.computeIfAbsent(player.getUniqueID(), id -> new PlayerQueue(player));
+        queue.player = player;
+        if (queue.resync.compareAndSet(false, true)) {
+            PENDING_RESYNCS.incrementAndGet();
+        }
+    }
+
+    /**
+     * Process the queued Messages at the end of every server tick.
+     * Each round gives every Player with queued Messages an even
+     * share of the budget left, until the budget runs out or
+     * every queue is empty. The resyncs are sent with the budget left,
+     * one operation each
+     *
+     * @param event Server Tick Event
+     */
+    @SubscribeEvent
+    public static void onServerTick(final TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) {
+            return;
+        }
+        ticks++;
+        if (QUEUE_DEPTH.get() == 0 && PENDING_RESYNCS.get() == 0) {
+            return;
+        }
+        List<PlayerQueue> queues = new ArrayList<>();
+        for (Iterator<PlayerQueue> iterator = QUEUES.values().iterator(); iterator.hasNext(); ) {
+            PlayerQueue queue = iterator.next();
+            if (queue.player.hasDisconnected()) {
+                iterator.remove();
+                forget(queue);
+            } else if (queue.size.get() > 0) {
+                queues.add(queue);
+            }
+        }
+        int left = drainAll(queues, BundleConfig.MAX_OPERATIONS_PER_TICK.get());
+        if (PENDING_RESYNCS.get() > 0) {
+            for (PlayerQueue queue : QUEUES.values()) {
+                if (left <= 0) {
+                    break;
+                }
+                if (queue.resync.get() && ticks - queue.nextResyncTick >= 0 && queue.resync.compareAndSet(true, false)) {
+                    PENDING_RESYNCS.decrementAndGet();
+                    queue.nextResyncTick = ticks + RESYNC_COOLDOWN_TICKS;
+                    BundleResyncMessageHandler.resync(queue.player);
+                    left--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Process the Messages of the Players with queued Messages
+     *
+     * @param queues Queues with Messages
+     * @param budget Operations budget
+     * @return Operations left
+     */
+    private static int drainAll(List<PlayerQueue> queues, int budget) {
+        if (queues.isEmpty()) {
+            return budget;
+        }
+        Collections.rotate(queues, -(nextPlayer++ % queues.size()));
+        int left = budget;
+        boolean processed = true;
+        while (left > 0 && processed && !queues.isEmpty()) {
+            processed = false;
+            int share = Math.max(1, left / queues.size());
+            for (Iterator<PlayerQueue> iterator = queues.iterator(); iterator.hasNext() && left > 0; ) {
+                PlayerQueue queue = iterator.next();
+                int used = drain(queue, Math.min(share, left), left);
+                processed |= used > 0;
+                left -= used;
+                if (queue.size.get() == 0) {
+                    iterator.remove();
+                }
+            }
+        }
+        for (PlayerQueue queue : queues) {
+            DEFERRED.add(queue.size.get());
+        }
+        return left;
+    }
+
+    /**
+     * Forget the queue of a Player leaving the server
+     *
+     * @param event Player Logged Out Event
+     */
+    @SubscribeEvent
+    public static void onPlayerLoggedOut(final PlayerEvent.PlayerLoggedOutEvent event) {
+        PlayerQueue queue = QUEUES.remove(event.getPlayer().getUniqueID());
+        if (queue != null) {
+            forget(queue);
+        }
+    }
+
+    /**
+     * Stop counting the Messages and the resync of a removed queue
+     *
+     * @param queue Player queue
+     */
+    private static void forget(PlayerQueue queue) {
+        QUEUE_DEPTH.addAndGet(-queue.size.get());
+        if (queue.resync.getAndSet(false)) {
+            PENDING_RESYNCS.decrementAndGet();
+        }
+    }
+
+    /**
+     * Process the Messages of a Player, until the share runs out.
+     * The first Message is processed even if it costs more than
+     * the share, as long as the budget left covers it, so a Player
+     * sending many Slots at once is not starved by the others.
+     * No Message costs more than the whole budget, since the
+     * Slot Ids over it are dropped when decoding. If processing
+     * fails, the Player queue is dropped
+     *
+     * @param queue Player queue
+     * @param share Operations the Player can use
+     * @param left  Operations left in this tick, across every Player
+     * @return Operations used
+     */
+    private static int drain(PlayerQueue queue, int share, int left) {
+        int used = 0;
+        List<BundleServerMessage> batch = new ArrayList<>();
+        BundleServerMessage message;
+        while ((message = queue.messages.peek()) != null) {
+            int cost = message.empty ? 1 : Math.max(1, message.slotIds.length);
+            if (used + cost > share && (used > 0 || cost > left)) {
+                break;
+            }
+            queue.messages.poll();
+            queue.size.decrementAndGet();
+            QUEUE_DEPTH.decrementAndGet();
+            PROCESSED.increment();
+            used += cost;
+            if (!batch.isEmpty() && !canMerge(batch.get(0), message)) {
+                if (!process(queue.player, batch)) {
+                    drop(queue);
+                    return used;
+                }
+                batch.clear();
+            }
+            batch.add(message);
+        }
+        if (!batch.isEmpty() && !process(queue.player, batch)) {
+            drop(queue);
+        }
+        return used;
+    }
+
+    /**
+     * Reject every Message left inside a Player queue
+     *
+     * @param queue Player queue
+     */
+    private static void drop(PlayerQueue queue) {
+        BundleServerMessage message;
+        while ((message = queue.messages.poll()) != null) {
+            queue.size.decrementAndGet();
+            QUEUE_DEPTH.decrementAndGet();
+            DROPPED.increment();
+            reject(queue.player, message);
+        }
+    }
+
+    /**
+     * Reject a Message, so the client rolls back its prediction
+     *
+     * @param player  Player
+     * @param message Message
+     */
+    private static void reject(ServerPlayerEntity player, BundleServerMessage message) {
+        BundleResources.NETWORK.send(PacketDistributor.PLAYER.with(() -> player), BundleClientMessage.rejected(message.sequence, player.openContainer.windowId));
+    }
+
+    /**
+     * Check if two Messages can be processed together
+     *
+     * @param message Message
+     * @param other   Other Message
+     * @return True if both Messages act on the held Bundle, False otherwise
+     */
+    private static boolean canMerge(BundleServerMessage message, BundleServerMessage other) {
+        return !message.empty && !other.empty && message.bundle.isEmpty() && other.bundle.isEmpty();
+    }
+
+    /**
+     * Process a batch of Messages and answer each one.
+     * If processing throws, the error is logged and
+     * the whole batch is rejected
+     *
+     * @param player Player
+     * @param batch  Messages
+     * @return True if the batch has been processed, False otherwise
+     */
+    private static boolean process(ServerPlayerEntity player, List<BundleServerMessage> batch) {
+        long startTime = BundleProfiler.startTimer();
+        long processingStart = System.nanoTime();
+        List<BundleClientMessage> replies;
+        try {
+            replies = BundleServerMessageHandler.processMessages(batch, player);
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to process {} Bundle messages from {}", batch.size(), player.getName().getString(), e);
+            for (BundleServerMessage message : batch) {
+                reject(player, message);
+            }
+            return false;
+        }
+        BundleMetrics.addProcessingTime(System.nanoTime() - processingStart);
+        for (BundleClientMessage reply : replies) {
+            BundleResources.NETWORK.send(PacketDistributor.PLAYER.with(() -> player), reply);
+        }
+        BundleProfiler.record(BundleProfiler.Operation.PACKET, player, startTime);
+        return true;
+    }
+
+    /**
+     * Get how many Messages are waiting to be processed
+     *
+     * @return Queued Messages count
+     */
+    public static int getQueueDepth() {
+        return QUEUE_DEPTH.get();
+    }
+
+    /**
+     * Get how many Messages have been processed
+     *
+     * @return Processed Messages count
+     */
+    public static long getProcessedCount() {
+        return PROCESSED.sum();
+    }
+
+    /**
+     * Get how many times a Message has been left for a later tick
+     *
+     * @return Deferred Messages count
+     */
+    public static long getDeferredCount() {
+        return DEFERRED.sum();
+    }
+
+    /**
+     * Get how many Messages have been dropped
+     *
+     * @return Dropped Messages count
+     */
+    public static long getDroppedCount() {
+        return DROPPED.sum();
+    }
+}
@@ -1,57 +1,114 @@
 package com.bundles.network.message;
 
-import net.minecraft.item.ItemStack;
+import com.bundles.util.BundleContentsChanges;
 import net.minecraft.network.PacketBuffer;
 
+import java.util.Arrays;
+
 /**
- * Bundle Client Message
+ * Bundle Client Message.
+ * Carries only the Bundle entries that changed,
+ * along with the revisions the changes go from and to
  *
  * @author JimiIT92
  */
 public class BundleClientMessage {
 
     /**
-     * Bundle Item Stack
+     * Bundle action
+     */
+    public enum Action {
+        /**
+         * An Item Stack has been put inside the Bundle
+         */
+        ADD,
+        /**
+         * An Item Stack has been taken out of the Bundle
+         */
+        REMOVE,
+        /**
+         * The Bundle has been cleared
+         */
+        EMPTY
+    }
+
+    /**
+     * Sequence number of the client message this answers
+     */
+    public int sequence;
+    /**
+     * Window Id of the Container the action has been done in
+     */
+    public int windowId;
+    /**
+     * Ids of the Slots changed by the action.
+     * The Bundle Slot when the Bundle has been cleared
+     */
+    public int[] slotIds;
+    /**
+     * Bundle action
+     */
+    public Action action;
+    /**
+     * Item count inside each changed Slot after the action
+     */
+    public int[] slotCounts;
+    /**
+     * Bundle revision the changes apply to
      */
-    public ItemStack bundle;
+    public int baseRevision;
     /**
-     * Item Stack Slot Id
+     * Bundle revision after the changes
      */
-    public int slotId;
+    public int revision;
     /**
-     * Item Stack for Bundle
+     * Bundle Items Count after the changes
      */
-    public ItemStack slotStack;
+    public int itemsCount;
     /**
-     * If the Bundle should be cleared
+     * Bundle entries changes
      */
-    public boolean empty;
+    public BundleContentsChanges changes;
     /**
      * If the Empty sound should be played
      */
     public boolean playEmptySound;
+    /**
+     * If the server dropped the client message without processing it
+     */
+    public boolean rejected;
 
     /**
      * Default constructor
      */
     public BundleClientMessage() {
-        this(ItemStack.EMPTY,0, ItemStack.EMPTY, false, false);
+        this(0, 0, new int[0], Action.ADD, new int[0], 0, 0, 0, new BundleContentsChanges(), false);
     }
 
     /**
      * Constructor
      *
-     * @param bundle Bundle Item Stack
-     * @param slotId Item Stack Slot Id
-     * @param slotStack Item Stack for Bundle
-     * @param empty If the Bundle should be cleared
+     * @param sequence       Sequence number of the client message this answers
+     * @param windowId       Window Id of the Container the action has been done in
+     * @param slotIds        Ids of the Slots changed by the action
+     * @param action         Bundle action
+     * @param slotCounts     Item count inside each changed Slot
+     * @param baseRevision   Bundle revision the changes apply to
+     * @param revision       Bundle revision after the changes
+     * @param itemsCount     Bundle Items Count after the changes
+     * @param changes        Bundle entries changes
      * @param playEmptySound If the Empty sound should be played
      */
-    public BundleClientMessage(ItemStack bundle, int slotId, ItemStack slotStack, boolean empty, boolean playEmptySound) {
-        this.bundle = bundle;
-        this.slotId = slotId;
-        this.slotStack = slotStack;
-        this.empty = empty;
+    public BundleClientMessage(int sequence, int windowId, int[] slotIds, Action action, int[] slotCounts, int baseRevision, int revision, int itemsCount, BundleContentsChanges changes, boolean playEmptySound) {
+        this.sequence = sequence;
+        this.windowId = windowId;
+        this.slotIds = slotIds;
+        this.action = action;
+        this.slotCounts = slotCounts;
+        this.baseRevision = baseRevision;
+        this.revision = revision;
+        this.itemsCount = itemsCount;
+        this.changes = changes;
         this.playEmptySound = playEmptySound;
     }
 
@@ -63,11 +120,17 @@ public class BundleClientMessage {
      */
     public static BundleClientMessage decode(PacketBuffer buffer) {
         BundleClientMessage message = new BundleClientMessage();
-        message.bundle = buffer.readItemStack();
-        message.slotId = buffer.readInt();
-        message.slotStack = buffer.readItemStack();
-        message.empty = buffer.readBoolean();
+        message.sequence = buffer.readVarInt();
+        message.windowId = buffer.readVarInt();
+        message.slotIds = buffer.readVarIntArray(BundleServerMessage.MAX_SLOTS);
+        message.action = buffer.readEnumValue(Action.class);
+        message.slotCounts = buffer.readVarIntArray(BundleServerMessage.MAX_SLOTS);
+        message.baseRevision = buffer.readVarInt();
+        message.revision = buffer.readVarInt();
+        message.itemsCount = buffer.readVarInt();
+        message.changes = BundleContentsChanges.decode(buffer);
         message.playEmptySound = buffer.readBoolean();
+        message.rejected = buffer.readBoolean();
         return message;
     }
 
@@ -77,10 +140,48 @@ public class BundleClientMessage {
      * @param buffer Packet Buffer
      */
     public void encode(PacketBuffer buffer) {
-        buffer.writeItemStack(this.bundle);
-        buffer.writeInt(this.slotId);
-        buffer.writeItemStack(this.slotStack);
-        buffer.writeBoolean(this.empty);
+        buffer.writeVarInt(this.sequence);
+        buffer.writeVarInt(this.windowId);
+        buffer.writeVarIntArray(this.slotIds);
+        buffer.writeEnumValue(this.action);
+        buffer.writeVarIntArray(this.slotCounts);
+        buffer.writeVarInt(this.baseRevision);
+        buffer.writeVarInt(this.revision);
+        buffer.writeVarInt(this.itemsCount);
+        this.changes.encode(buffer);
         buffer.writeBoolean(this.playEmptySound);
+        buffer.writeBoolean(this.rejected);
+    }
+
+    /**
+     * Create the answer to a client message the server dropped
+     *
+     * @param sequence Sequence number of the dropped message
+     * @param windowId Window Id of the Container open on the server
+     * @return Message
+     */
+    public static BundleClientMessage rejected(int sequence, int windowId) {
+        BundleClientMessage message = new BundleClientMessage();
+        message.sequence = sequence;
+        message.windowId = windowId;
+        message.rejected = true;
+        return message;
+    }
+
+    /**
+     * Check if another Message describes the same result
+     *
+     * @param other Other Message
+     * @return True if both Messages lead to the same Bundle and Slot, False otherwise
+     */
+    public boolean isSameResult(BundleClientMessage other) {
+        return rejected == other.rejected
+            && windowId == other.windowId
+            && action == other.action
+            && Arrays.equals(slotIds, other.slotIds)
+            && Arrays.equals(slotCounts, other.slotCounts)
+            && baseRevision == other.baseRevision
+            && revision == other.revision
+            && itemsCount == other.itemsCount;
     }
 }
@@ -0,0 +1,32 @@
+package com.bundles.network.message;
+
+import net.minecraft.network.PacketBuffer;
+
+/**
+ * Bundle Resync Message.
+ * Sent by the client when its copy of a Bundle
+ * drifted from the server one, to get the whole
+ * Container contents again
+ *
+ * @author JimiIT92
+ */
+public class BundleResyncMessage {
+
+    /**
+     * Deserialize the Message
+     *
+     * @param buffer Packet Buffer
+     * @return Message
+     */
+    public static BundleResyncMessage decode(PacketBuffer buffer) {
+        return new BundleResyncMessage();
+    }
+
+    /**
+     * Serialize the Message
+     *
+     * @param buffer Packet Buffer
+     */
+    public void encode(PacketBuffer buffer) {
+    }
+}
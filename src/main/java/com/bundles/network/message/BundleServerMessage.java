@@ -1,8 +1,11 @@
 package com.bundles.network.message;
 
+import com.bundles.init.BundleConfig;
 import net.minecraft.item.ItemStack;
 import net.minecraft.network.PacketBuffer;
 
+import java.util.Arrays;
+
 /**
  * Bundle Server Message
  *
@@ -11,19 +14,29 @@ import net.minecraft.network.PacketBuffer;
 public class BundleServerMessage {
 
     /**
-     * Bundle Item Stack
+     * Max Slot Ids sent in a single Message
+     */
+    public static final int MAX_SLOTS = 256;
+
+    /**
+     * Client sequence number, echoed back by the server
+     */
+    public int sequence;
+    /**
+     * Bundle Item Stack. Only sent from the Creative inventory,
+     * where the held Item Stack is not known by the server
      */
     public ItemStack bundle;
     /**
-     * Item Stack Slot Id
+     * Item Stack Slot Ids, in the order they should be processed
      */
-    public int slotId;
+    public int[] slotIds;
     /**
      * If the Bundle should be cleared
      */
     public boolean empty;
     /**
-     * If the Bundle should be cleared
+     * If the Item Stack should be taken from the other end of the Bundle
      */
     public boolean reversed;
 
@@ -40,25 +53,53 @@ public class BundleServerMessage {
      *  @param bundle Bundle Item Stack
      * @param slotId Item Stack Slot Id
      * @param empty If the Bundle should be cleared
-     * @param reversed
+     * @param reversed If the Item Stack should be taken from the other end of the Bundle
      */
     public BundleServerMessage(ItemStack bundle, int slotId, boolean empty, boolean reversed) {
+        this(bundle, new int[]{slotId}, empty, reversed);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param bundle   Bundle Item Stack
+     * @param slotIds  Item Stack Slot Ids
+     * @param empty    If the Bundle should be cleared
+     * @param reversed If the Item Stack should be taken from the other end of the Bundle
+     */
+    public BundleServerMessage(ItemStack bundle, int[] slotIds, boolean empty, boolean reversed) {
         this.bundle = bundle;
-        this.slotId = slotId;
+        this.slotIds = slotIds;
         this.empty = empty;
         this.reversed = reversed;
     }
 
     /**
-     * Deserialize the Message
+     * Get how many Slot Ids can be sent in a single Message.
+     * A Message never costs more than the operations
+     * the server processes in a tick
+     *
+     * @return Max Slot Ids of a Message
+     */
+    public static int getMaxSlots() {
+        return Math.min(MAX_SLOTS, BundleConfig.MAX_OPERATIONS_PER_TICK.get());
+    }
+
+    /**
+     * Deserialize the Message.
+     * Slot Ids over the max are dropped
      *
      * @param buffer Packet Buffer
      * @return Message
      */
     public static BundleServerMessage decode(PacketBuffer buffer) {
         BundleServerMessage message = new BundleServerMessage();
+        message.sequence = buffer.readVarInt();
         message.bundle = buffer.readItemStack();
-        message.slotId = buffer.readInt();
+        message.slotIds = buffer.readVarIntArray(MAX_SLOTS);
+        if (message.slotIds.length > getMaxSlots()) {
+            message.slotIds = Arrays.copyOf(message.slotIds, getMaxSlots());
+        }
         message.empty = buffer.readBoolean();
         message.reversed = buffer.readBoolean();
         return message;
@@ -70,8 +111,9 @@ public class BundleServerMessage {
      * @param buffer Packet Buffer
      */
     public void encode(PacketBuffer buffer) {
+        buffer.writeVarInt(this.sequence);
         buffer.writeItemStack(this.bundle);
-        buffer.writeInt(this.slotId);
+        buffer.writeVarIntArray(this.slotIds);
         buffer.writeBoolean(this.empty);
         buffer.writeBoolean(this.reversed);
     }
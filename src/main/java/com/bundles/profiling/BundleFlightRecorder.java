@@ -0,0 +1,332 @@
+package com.bundles.profiling;
+
+import com.bundles.network.message.BundleClientMessage;
+import io.netty.buffer.Unpooled;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import net.minecraft.item.ItemStack;
+import net.minecraft.network.PacketBuffer;
+
+/**
+ * Bundle Flight Recorder.
+ * Emits Java Flight Recorder events for the Bundle operations.
+ * Nothing is allocated or measured unless a recording is
+ * running, and nothing is emitted at all on runtimes
+ * without Flight Recorder
+ *
+ * @author JimiIT92
+ */
+public final class BundleFlightRecorder {
+
+    /**
+     * If the Flight Recorder API is available
+     */
+    private static final boolean AVAILABLE = isAvailable();
+    /**
+     * If a recording is running
+     */
+    private static volatile boolean recording;
+
+    static {
+        if (AVAILABLE) {
+            Recorder.register();
+        }
+    }
+
+    /**
+     * Start a Bundle NBT decode event
+     *
+     * @return Event or null if nothing is recording
+     */
+    public static Object beginDecode() {
+        if (!recording) {
+            return null;
+        }
+        DecodeEvent event = new DecodeEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End a Bundle NBT decode event
+     *
+     * @param event   Event started by {@link #beginDecode()}
+     * @param entries Decoded entries count
+     */
+    public static void endDecode(Object event, int entries) {
+        if (event == null) {
+            return;
+        }
+        DecodeEvent decodeEvent = (DecodeEvent) event;
+        decodeEvent.end();
+        if (decodeEvent.shouldCommit()) {
+            decodeEvent.entries = entries;
+            decodeEvent.commit();
+        }
+    }
+
+    /**
+     * Start a Bundle NBT encode event
+     *
+     * @return Event or null if nothing is recording
+     */
+    public static Object beginEncode() {
+        if (!recording) {
+            return null;
+        }
+        EncodeEvent event = new EncodeEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End a Bundle NBT encode event
+     *
+     * @param event  Event started by {@link #beginEncode()}
+     * @param bundle Encoded Bundle Item Stack
+     * @param items  Items inside the Bundle
+     */
+    public static void endEncode(Object event, ItemStack bundle, int items) {
+        if (event == null) {
+            return;
+        }
+        EncodeEvent encodeEvent = (EncodeEvent) event;
+        encodeEvent.end();
+        if (encodeEvent.shouldCommit()) {
+            encodeEvent.items = items;
+            encodeEvent.bytes = BundleProfiler.getSize(bundle.getTag());
+            encodeEvent.commit();
+        }
+    }
+
+    /**
+     * Start a Bundle Message processing event
+     *
+     * @return Event or null if nothing is recording
+     */
+    public static Object beginMessage() {
+        if (!recording) {
+            return null;
+        }
+        MessageEvent event = new MessageEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End a Bundle Message processing event
+     *
+     * @param event  Event started by {@link #beginMessage()}
+     * @param slotId Id of the first Slot of the Message
+     * @param reply  Message describing the result of the action
+     */
+    public static void endMessage(Object event, int slotId, BundleClientMessage reply) {
+        if (event == null) {
+            return;
+        }
+        MessageEvent messageEvent = (MessageEvent) event;
+        messageEvent.end();
+        if (messageEvent.shouldCommit()) {
+            PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+            reply.encode(buffer);
+            messageEvent.action = reply.action.name();
+            messageEvent.slotId = slotId;
+            messageEvent.slots = reply.slotIds.length;
+            messageEvent.entries = reply.changes.size();
+            messageEvent.bytes = buffer.writerIndex();
+            buffer.release();
+            messageEvent.commit();
+        }
+    }
+
+    /**
+     * Start a Tooltip layout build event
+     *
+     * @return Event or null if nothing is recording
+     */
+    public static Object beginTooltipLayout() {
+        if (!recording) {
+            return null;
+        }
+        TooltipLayoutEvent event = new TooltipLayoutEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End a Tooltip layout build event
+     *
+     * @param event   Event started by {@link #beginTooltipLayout()}
+     * @param entries Bundle entries count
+     * @param items   Items count
+     */
+    public static void endTooltipLayout(Object event, int entries, int items) {
+        if (event == null) {
+            return;
+        }
+        TooltipLayoutEvent layoutEvent = (TooltipLayoutEvent) event;
+        layoutEvent.end();
+        if (layoutEvent.shouldCommit()) {
+            layoutEvent.entries = entries;
+            layoutEvent.items = items;
+            layoutEvent.commit();
+        }
+    }
+
+    /**
+     * Check if the Flight Recorder API is available
+     *
+     * @return True if the Flight Recorder API is available, False otherwise
+     */
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder", false, BundleFlightRecorder.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Keeps track of the running recordings
+     */
+    private static final class Recorder {
+
+        /**
+         * Listen to the recordings state
+         */
+        private static void register() {
+            FlightRecorder.addListener(new FlightRecorderListener() {
+                @Override
+                public void recorderInitialized(FlightRecorder recorder) {
+                    update(recorder);
+                }
+
+                @Override
+                public void recordingStateChanged(Recording changed) {
+                    update(FlightRecorder.getFlightRecorder());
+                }
+            });
+        }
+
+        /**
+         * Check if any recording is running
+         *
+         * @param recorder Flight Recorder
+         */
+        private static void update(FlightRecorder recorder) {
+            boolean running = false;
+            for (Recording current : recorder.getRecordings()) {
+                if (current.getState() == RecordingState.RUNNING) {
+                    running = true;
+                    break;
+                }
+            }
+            recording = running;
+        }
+    }
+
+    /**
+     * Bundle NBT decode event
+     */
+    @Name("bundles.Decode")
+    @Label("Bundle Decode")
+    @Category("Bundles")
+    @Description("Item Stacks decoded from a Bundle NBT")
+    static final class DecodeEvent extends Event {
+
+        /**
+         * Decoded entries count
+         */
+        @Label("Entries")
+        int entries;
+    }
+
+    /**
+     * Bundle NBT encode event
+     */
+    @Name("bundles.Encode")
+    @Label("Bundle Encode")
+    @Category("Bundles")
+    @Description("Bundle contents written back to the Bundle NBT")
+    static final class EncodeEvent extends Event {
+
+        /**
+         * Items inside the Bundle
+         */
+        @Label("Items")
+        int items;
+        /**
+         * Serialized Bundle NBT size
+         */
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    /**
+     * Bundle Message processing event
+     */
+    @Name("bundles.Message")
+    @Label("Bundle Message")
+    @Category("Bundles")
+    @Description("Bundle action requested by a Player")
+    static final class MessageEvent extends Event {
+
+        /**
+         * Bundle action
+         */
+        @Label("Action")
+        String action;
+        /**
+         * Id of the first Slot of the Message
+         */
+        @Label("Slot Id")
+        int slotId;
+        /**
+         * Changed Slots count
+         */
+        @Label("Slots")
+        int slots;
+        /**
+         * Changed Bundle entries count
+         */
+        @Label("Entries")
+        int entries;
+        /**
+         * Reply payload size
+         */
+        @Label("Payload Bytes")
+        @DataAmount
+        int bytes;
+    }
+
+    /**
+     * Tooltip layout build event
+     */
+    @Name("bundles.TooltipLayout")
+    @Label("Bundle Tooltip Layout")
+    @Category("Bundles")
+    @Description("Bundle Tooltip layout built for new contents")
+    static final class TooltipLayoutEvent extends Event {
+
+        /**
+         * Bundle entries count
+         */
+        @Label("Entries")
+        int entries;
+        /**
+         * Items count
+         */
+        @Label("Items")
+        int items;
+    }
+}
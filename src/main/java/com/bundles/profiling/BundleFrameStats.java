@@ -0,0 +1,221 @@
+package com.bundles.profiling;
+
+import net.minecraftforge.fml.common.thread.EffectiveSide;
+
+import java.util.Arrays;
+
+/**
+ * Bundle Frame Stats.
+ * Counts what the client Bundle code does each frame,
+ * for the debug overlay. Only the client thread is counted,
+ * and nothing is counted while the overlay is hidden
+ *
+ * @author JimiIT92
+ */
+public final class BundleFrameStats {
+
+    /**
+     * Frames the average time is computed over
+     */
+    public static final int AVERAGE_FRAMES = 60;
+
+    /**
+     * If the stats are being collected
+     */
+    private static volatile boolean enabled;
+    /**
+     * Bundle NBT decodes during the current frame
+     */
+    private static int decodes;
+    /**
+     * Tooltip layouts built during the current frame
+     */
+    private static int tooltipRebuilds;
+    /**
+     * Tooltip icons drawn during the current frame
+     */
+    private static int iconsDrawn;
+    /**
+     * Time spent inside the Bundle code during the current frame, in nanoseconds
+     */
+    private static long time;
+    /**
+     * Nesting depth of the timed Bundle code
+     */
+    private static int depth;
+    /**
+     * Bundle NBT decodes during the last frame
+     */
+    private static int lastDecodes;
+    /**
+     * Tooltip layouts built during the last frame
+     */
+    private static int lastTooltipRebuilds;
+    /**
+     * Tooltip icons drawn during the last frame
+     */
+    private static int lastIconsDrawn;
+    /**
+     * Time spent inside the Bundle code during the last frames, in nanoseconds
+     */
+    private static final long[] FRAME_TIMES = new long[AVERAGE_FRAMES];
+    /**
+     * Index of the next frame time
+     */
+    private static int frameIndex;
+    /**
+     * Sum of the last frame times, in nanoseconds
+     */
+    private static long framesTime;
+
+    /**
+     * Start or stop collecting the stats
+     *
+     * @param collect True to collect the stats, False to stop
+     */
+    public static void setEnabled(boolean collect) {
+        if (collect && !enabled) {
+            reset();
+        }
+        enabled = collect;
+    }
+
+    /**
+     * Check if the stats are being collected
+     *
+     * @return True if the stats are being collected, False otherwise
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start timing some Bundle code
+     *
+     * @return Start time, or 0 if not counted
+     */
+    public static long start() {
+        if (!enabled || !EffectiveSide.get().isClient()) {
+            return 0L;
+        }
+        depth++;
+        return System.nanoTime();
+    }
+
+    /**
+     * Stop timing some Bundle code.
+     * Nested timings are only counted once
+     *
+     * @param startTime Start time returned by {@link #start()}
+     */
+    public static void stop(long startTime) {
+        if (startTime == 0L) {
+            return;
+        }
+        depth--;
+        if (depth == 0) {
+            time += System.nanoTime() - startTime;
+        }
+    }
+
+    /**
+     * Count a Bundle NBT decode
+     */
+    public static void countDecode() {
+        if (enabled && EffectiveSide.get().isClient()) {
+            decodes++;
+        }
+    }
+
+    /**
+     * Count a Tooltip layout build
+     */
+    public static void countTooltipRebuild() {
+        if (enabled) {
+            tooltipRebuilds++;
+        }
+    }
+
+    /**
+     * Count the Tooltip icons drawn
+     *
+     * @param icons Icons drawn
+     */
+    public static void countIconsDrawn(int icons) {
+        if (enabled) {
+            iconsDrawn += icons;
+        }
+    }
+
+    /**
+     * End the current frame
+     */
+    public static void endFrame() {
+        if (!enabled) {
+            return;
+        }
+        lastDecodes = decodes;
+        lastTooltipRebuilds = tooltipRebuilds;
+        lastIconsDrawn = iconsDrawn;
+        framesTime += time - FRAME_TIMES[frameIndex];
+        FRAME_TIMES[frameIndex] = time;
+        frameIndex = (frameIndex + 1) % AVERAGE_FRAMES;
+        decodes = 0;
+        tooltipRebuilds = 0;
+        iconsDrawn = 0;
+        time = 0L;
+    }
+
+    /**
+     * Get the Bundle NBT decodes of the last frame
+     *
+     * @return Decodes count
+     */
+    public static int getDecodes() {
+        return lastDecodes;
+    }
+
+    /**
+     * Get the Tooltip layouts built during the last frame
+     *
+     * @return Tooltip rebuilds count
+     */
+    public static int getTooltipRebuilds() {
+        return lastTooltipRebuilds;
+    }
+
+    /**
+     * Get the Tooltip icons drawn during the last frame
+     *
+     * @return Icons count
+     */
+    public static int getIconsDrawn() {
+        return lastIconsDrawn;
+    }
+
+    /**
+     * Get the average time spent inside the Bundle code each frame
+     *
+     * @return Average time, in nanoseconds
+     */
+    public static long getAverageTime() {
+        return framesTime / AVERAGE_FRAMES;
+    }
+
+    /**
+     * Clear every stat
+     */
+    private static void reset() {
+        decodes = 0;
+        tooltipRebuilds = 0;
+        iconsDrawn = 0;
+        time = 0L;
+        depth = 0;
+        lastDecodes = 0;
+        lastTooltipRebuilds = 0;
+        lastIconsDrawn = 0;
+        Arrays.fill(FRAME_TIMES, 0L);
+        frameIndex = 0;
+        framesTime = 0L;
+    }
+}
@@ -0,0 +1,106 @@
+package com.bundles.profiling;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bundle Latency Histogram.
+ * Lock-free histogram of durations, with a bucket for
+ * each power of two nanoseconds. Recording a duration
+ * never allocates, so it can be done on any thread
+ *
+ * @author JimiIT92
+ */
+public final class BundleLatencyHistogram {
+
+    /**
+     * Buckets count, one for each bit of a duration
+     */
+    private static final int BUCKETS = 65;
+
+    /**
+     * Recorded durations inside each bucket
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    /**
+     * Recorded durations count
+     */
+    private final AtomicLong count = new AtomicLong();
+    /**
+     * Sum of the recorded durations, in nanoseconds
+     */
+    private final AtomicLong total = new AtomicLong();
+    /**
+     * Longest recorded duration, in nanoseconds
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a duration
+     *
+     * @param nanos Duration, in nanoseconds
+     */
+    public void record(long nanos) {
+        long duration = Math.max(0, nanos);
+        buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(duration));
+        count.incrementAndGet();
+        total.addAndGet(duration);
+        long currentMax;
+        while (duration > (currentMax = max.get()) && !max.compareAndSet(currentMax, duration)) {
+            // Retry until the max is updated or another thread recorded a longer duration
+        }
+    }
+
+    /**
+     * Get the recorded durations count
+     *
+     * @return Recorded durations count
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Get the sum of the recorded durations
+     *
+     * @return Recorded durations sum, in nanoseconds
+     */
+    public long getTotal() {
+        return total.get();
+    }
+
+    /**
+     * Get the longest recorded duration
+     *
+     * @return Longest duration, in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get a percentile of the recorded durations.
+     * The result is the upper bound of the bucket the
+     * percentile falls into, so it's at most twice the
+     * actual value
+     *
+     * @param percentile Percentile, between 0 and 1
+     * @return Percentile, in nanoseconds
+     */
+    public long getPercentile(double percentile) {
+        long recorded = count.get();
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(recorded * percentile));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                long upperBound = i >= 63 ? Long.MAX_VALUE : (1L << i) - 1;
+                return Math.min(upperBound, max.get());
+            }
+        }
+        return max.get();
+    }
+}
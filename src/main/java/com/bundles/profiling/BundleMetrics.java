@@ -0,0 +1,216 @@
+package com.bundles.profiling;
+
+import com.bundles.network.handler.BundleServerMessageQueue;
+import net.minecraft.network.PacketBuffer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Bundle Metrics.
+ * Counters of the Bundle subsystem, exposed through JMX
+ * as com.bundles:type=Metrics. Counters are LongAdders,
+ * so the network and server threads never contend
+ *
+ * @author JimiIT92
+ */
+public final class BundleMetrics implements BundleMetricsMXBean {
+
+    /**
+     * JMX name
+     */
+    private static final String OBJECT_NAME = "com.bundles:type=Metrics";
+
+    /**
+     * Received Messages
+     */
+    private static final LongAdder MESSAGES_RECEIVED = new LongAdder();
+    /**
+     * Sent Messages
+     */
+    private static final LongAdder MESSAGES_SENT = new LongAdder();
+    /**
+     * NBT decodes
+     */
+    private static final LongAdder NBT_DECODES = new LongAdder();
+    /**
+     * Contents cache hits
+     */
+    private static final LongAdder CACHE_HITS = new LongAdder();
+    /**
+     * Contents cache misses
+     */
+    private static final LongAdder CACHE_MISSES = new LongAdder();
+    /**
+     * Time spent processing Messages, in nanoseconds
+     */
+    private static final LongAdder PROCESSING_TIME = new LongAdder();
+
+    /**
+     * Bundle Message type
+     */
+    public enum MessageType {
+        /**
+         * Bundle Server Message
+         */
+        SERVER,
+        /**
+         * Bundle Client Message
+         */
+        CLIENT,
+        /**
+         * Bundle Resync Message
+         */
+        RESYNC;
+
+        /**
+         * Bytes received or sent
+         */
+        private final LongAdder bytes = new LongAdder();
+    }
+
+    /**
+     * Register the MXBean
+     */
+    public static void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new BundleMetrics(), name);
+            }
+        } catch (JMException | SecurityException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Count the Messages written by an encoder
+     *
+     * @param type    Message type
+     * @param encoder Message encoder
+     * @param <T>     Message class
+     * @return Counting encoder
+     */
+    public static <T> BiConsumer<T, PacketBuffer> countSent(MessageType type, BiConsumer<T, PacketBuffer> encoder) {
+        return (message, buffer) -> {
+            int start = buffer.writerIndex();
+            encoder.accept(message, buffer);
+            MESSAGES_SENT.increment();
+            type.bytes.add(buffer.writerIndex() - start);
+        };
+    }
+
+    /**
+     * Count the Messages read by a decoder
+     *
+     * @param type    Message type
+     * @param decoder Message decoder
+     * @param <T>     Message class
+     * @return Counting decoder
+     */
+    public static <T> Function<PacketBuffer, T> countReceived(MessageType type, Function<PacketBuffer, T> decoder) {
+        return buffer -> {
+            int start = buffer.readerIndex();
+            T message = decoder.apply(buffer);
+            MESSAGES_RECEIVED.increment();
+            type.bytes.add(buffer.readerIndex() - start);
+            return message;
+        };
+    }
+
+    /**
+     * Count a Bundle NBT decode
+     */
+    public static void countDecode() {
+        NBT_DECODES.increment();
+    }
+
+    /**
+     * Count a contents cache lookup
+     *
+     * @param hit True if the contents were cached, False otherwise
+     */
+    public static void countCacheLookup(boolean hit) {
+        (hit ? CACHE_HITS : CACHE_MISSES).increment();
+    }
+
+    /**
+     * Add the time spent processing Messages
+     *
+     * @param nanos Processing time, in nanoseconds
+     */
+    public static void addProcessingTime(long nanos) {
+        PROCESSING_TIME.add(nanos);
+    }
+
+    @Override
+    public long getMessagesReceived() {
+        return MESSAGES_RECEIVED.sum();
+    }
+
+    @Override
+    public long getMessagesSent() {
+        return MESSAGES_SENT.sum();
+    }
+
+    @Override
+    public long getServerMessageBytes() {
+        return MessageType.SERVER.bytes.sum();
+    }
+
+    @Override
+    public long getClientMessageBytes() {
+        return MessageType.CLIENT.bytes.sum();
+    }
+
+    @Override
+    public long getResyncMessageBytes() {
+        return MessageType.RESYNC.bytes.sum();
+    }
+
+    @Override
+    public long getNbtDecodes() {
+        return NBT_DECODES.sum();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return CACHE_HITS.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return CACHE_MISSES.sum();
+    }
+
+    @Override
+    public long getMessagesProcessed() {
+        return BundleServerMessageQueue.getProcessedCount();
+    }
+
+    @Override
+    public long getProcessingTimeNanos() {
+        return PROCESSING_TIME.sum();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return BundleServerMessageQueue.getQueueDepth();
+    }
+
+    @Override
+    public long getMessagesDeferred() {
+        return BundleServerMessageQueue.getDeferredCount();
+    }
+
+    @Override
+    public long getMessagesDropped() {
+        return BundleServerMessageQueue.getDroppedCount();
+    }
+}
@@ -0,0 +1,102 @@
+package com.bundles.profiling;
+
+/**
+ * Bundle Metrics MXBean.
+ * Counters of the Bundle subsystem, exposed through JMX.
+ * Every counter only grows, except the queue depth
+ *
+ * @author JimiIT92
+ */
+public interface BundleMetricsMXBean {
+
+    /**
+     * Get how many Bundle Messages have been received
+     *
+     * @return Received Messages count
+     */
+    long getMessagesReceived();
+
+    /**
+     * Get how many Bundle Messages have been sent
+     *
+     * @return Sent Messages count
+     */
+    long getMessagesSent();
+
+    /**
+     * Get how many bytes of Bundle Server Messages have been received or sent
+     *
+     * @return Bundle Server Messages bytes
+     */
+    long getServerMessageBytes();
+
+    /**
+     * Get how many bytes of Bundle Client Messages have been received or sent
+     *
+     * @return Bundle Client Messages bytes
+     */
+    long getClientMessageBytes();
+
+    /**
+     * Get how many bytes of Bundle Resync Messages have been received or sent
+     *
+     * @return Bundle Resync Messages bytes
+     */
+    long getResyncMessageBytes();
+
+    /**
+     * Get how many times a Bundle NBT has been decoded
+     *
+     * @return NBT decodes count
+     */
+    long getNbtDecodes();
+
+    /**
+     * Get how many times the decoded contents of a Bundle were cached
+     *
+     * @return Cache hits count
+     */
+    long getCacheHits();
+
+    /**
+     * Get how many times the decoded contents of a Bundle were not cached
+     *
+     * @return Cache misses count
+     */
+    long getCacheMisses();
+
+    /**
+     * Get how many Bundle Messages have been processed
+     *
+     * @return Processed Messages count
+     */
+    long getMessagesProcessed();
+
+    /**
+     * Get the time spent processing Bundle Messages
+     *
+     * @return Processing time, in nanoseconds
+     */
+    long getProcessingTimeNanos();
+
+    /**
+     * Get how many Bundle Messages are waiting to be processed
+     *
+     * @return Queued Messages count
+     */
+    int getQueueDepth();
+
+    /**
+     * Get how many times a Bundle Message has been left for a later tick
+     *
+     * @return Deferred Messages count
+     */
+    long getMessagesDeferred();
+
+    /**
+     * Get how many Bundle Messages have been dropped
+     *
+     * @return Dropped Messages count
+     */
+    long getMessagesDropped();
+}
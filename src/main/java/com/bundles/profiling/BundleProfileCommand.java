@@ -0,0 +1,71 @@
+package com.bundles.profiling;
+
+import com.mojang.brigadier.CommandDispatcher;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.Commands;
+import net.minecraft.util.text.StringTextComponent;
+
+/**
+ * Bundle Profile Command.
+ * Lets operators start and stop the Bundle profiler
+ * and read its report:
+ * /bundles profile start|stop|report
+ *
+ * @author JimiIT92
+ */
+public final class BundleProfileCommand {
+
+    /**
+     * Register the command
+     *
+     * @param dispatcher Command Dispatcher
+     */
+    public static void register(CommandDispatcher<CommandSource> dispatcher) {
+        dispatcher.register(Commands.literal("bundles")
+            .requires(source -> source.hasPermissionLevel(2))
+            .then(Commands.literal("profile")
+                .then(Commands.literal("start").executes(context -> start(context.getSource())))
+                .then(Commands.literal("stop").executes(context -> stop(context.getSource())))
+                .then(Commands.literal("report").executes(context -> report(context.getSource())))));
+    }
+
+    /**
+     * Start the profiler
+     *
+     * @param source Command Source
+     * @return Command result
+     */
+    private static int start(CommandSource source) {
+        BundleProfiler.start();
+        source.sendFeedback(new StringTextComponent("Bundle profiler started"), true);
+        return 1;
+    }
+
+    /**
+     * Stop the profiler and send its report
+     *
+     * @param source Command Source
+     * @return Command result
+     */
+    private static int stop(CommandSource source) {
+        if (!BundleProfiler.stop()) {
+            source.sendErrorMessage(new StringTextComponent("Bundle profiler is not running"));
+            return 0;
+        }
+        source.sendFeedback(new StringTextComponent("Bundle profiler stopped"), true);
+        return report(source);
+    }
+
+    /**
+     * Send the profiler report
+     *
+     * @param source Command Source
+     * @return Command result
+     */
+    private static int report(CommandSource source) {
+        for (String line : BundleProfiler.report()) {
+            source.sendFeedback(new StringTextComponent(line), false);
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,286 @@
+package com.bundles.profiling;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraftforge.fml.common.thread.EffectiveSide;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bundle Profiler.
+ * Samples the latency of the server Bundle operations
+ * while started by an operator. Nothing is measured
+ * while the profiler is stopped
+ *
+ * @author JimiIT92
+ */
+public final class BundleProfiler {
+
+    /**
+     * Players listed inside the report
+     */
+    private static final int WORST_PLAYERS = 5;
+    /**
+     * Only one commit every this many has its NBT size measured
+     */
+    private static final int ENCODE_SAMPLE_RATE = 16;
+
+    /**
+     * If the profiler is sampling
+     */
+    private static volatile boolean sampling;
+    /**
+     * Current samples
+     */
+    private static volatile Samples samples = new Samples();
+
+    /**
+     * Sampled operation
+     */
+    public enum Operation {
+        /**
+         * Item Stacks put inside a Bundle
+         */
+        ADD,
+        /**
+         * Item Stacks taken out of a Bundle
+         */
+        REMOVE,
+        /**
+         * Bundle cleared
+         */
+        EMPTY,
+        /**
+         * Messages of a Player processed and answered
+         */
+        PACKET
+    }
+
+    /**
+     * Samples collected since the profiler has been started
+     */
+    private static final class Samples {
+
+        /**
+         * When the sampling started, in nanoseconds
+         */
+        private final long startTime = System.nanoTime();
+        /**
+         * When the sampling stopped, in nanoseconds, 0 if still sampling
+         */
+        private volatile long stopTime;
+        /**
+         * Latency of each operation
+         */
+        private final Map<Operation, BundleLatencyHistogram> histograms = new EnumMap<>(Operation.class);
+        /**
+         * NBT bytes encoded, estimated from the measured commits
+         */
+        private final LongAdder encodedBytes = new LongAdder();
+        /**
+         * Commits seen, used to pick the measured ones
+         */
+        private final AtomicInteger commits = new AtomicInteger();
+        /**
+         * Time spent on the operations of each Player
+         */
+        private final Map<UUID, PlayerSamples> players = new ConcurrentHashMap<>();
+
+        /**
+         * Constructor
+         */
+        private Samples() {
+            for (Operation operation : Operation.values()) {
+                histograms.put(operation, new BundleLatencyHistogram());
+            }
+        }
+    }
+
+    /**
+     * Samples of a Player
+     */
+    private static final class PlayerSamples {
+
+        /**
+         * Player name
+         */
+        private final String name;
+        /**
+         * Time spent on the Player operations, in nanoseconds
+         */
+        private final LongAdder time = new LongAdder();
+        /**
+         * Player operations count
+         */
+        private final LongAdder operations = new LongAdder();
+
+        /**
+         * Constructor
+         *
+         * @param name Player name
+         */
+        private PlayerSamples(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Start sampling, discarding the previous samples
+     */
+    public static void start() {
+        samples = new Samples();
+        sampling = true;
+    }
+
+    /**
+     * Stop sampling, keeping the samples for the report
+     *
+     * @return True if the profiler was sampling, False otherwise
+     */
+    public static boolean stop() {
+        if (!sampling) {
+            return false;
+        }
+        sampling = false;
+        samples.stopTime = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * Check if the profiler is sampling
+     *
+     * @return True if the profiler is sampling, False otherwise
+     */
+    public static boolean isSampling() {
+        return sampling;
+    }
+
+    /**
+     * Start timing an operation
+     *
+     * @return Start time, or 0 if the profiler is stopped
+     */
+    public static long startTimer() {
+        return sampling ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Record a server operation
+     *
+     * @param operation Operation
+     * @param player    Player the operation has been done for
+     * @param startTime Start time returned by {@link #startTimer()}
+     */
+    public static void record(Operation operation, PlayerEntity player, long startTime) {
+        if (startTime == 0L || !sampling || player.world.isRemote) {
+            return;
+        }
+        long duration = System.nanoTime() - startTime;
+        Samples current = samples;
+        current.histograms.get(operation).record(duration);
+        if (operation != Operation.PACKET) {
+            PlayerSamples playerSamples = current.players.computeIfAbsent(player.getUniqueID(),
+                id -> new PlayerSamples(player.getGameProfile().getName()));
+            playerSamples.time.add(duration);
+            playerSamples.operations.increment();
+        }
+    }
+
+    /**
+     * Record the NBT written to a Bundle by the server.
+     * Serializing the tag to measure it costs as much as
+     * the commit itself, so only one commit every
+     * {@link #ENCODE_SAMPLE_RATE} is measured and counted
+     * for all of them
+     *
+     * @param bundle Bundle Item Stack
+     */
+    public static void recordEncode(ItemStack bundle) {
+        if (sampling && EffectiveSide.get().isServer()) {
+            Samples current = samples;
+            if (current.commits.getAndIncrement() % ENCODE_SAMPLE_RATE == 0) {
+                current.encodedBytes.add(getSize(bundle.getTag()) * ENCODE_SAMPLE_RATE);
+            }
+        }
+    }
+
+    /**
+     * Build the report of the current samples
+     *
+     * @return Report lines
+     */
+    public static List<String> report() {
+        Samples current = samples;
+        long stopTime = current.stopTime == 0L ? System.nanoTime() : current.stopTime;
+        double seconds = Math.max(1e-9, (stopTime - current.startTime) / 1e9);
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "Bundle profile over %.1fs%s", seconds, sampling ? " (sampling)" : ""));
+        for (Operation operation : Operation.values()) {
+            BundleLatencyHistogram histogram = current.histograms.get(operation);
+            lines.add(String.format(Locale.ROOT, "%s: %d ops, %.1f/s, p50 %s, p99 %s, max %s",
+                operation.name().toLowerCase(Locale.ROOT),
+                histogram.getCount(),
+                histogram.getCount() / seconds,
+                formatNanos(histogram.getPercentile(0.5)),
+                formatNanos(histogram.getPercentile(0.99)),
+                formatNanos(histogram.getMax())));
+        }
+        long encodedBytes = current.encodedBytes.sum();
+        lines.add(String.format(Locale.ROOT, "NBT encoded: ~%d bytes, %.1f bytes/s (1 in %d commits measured)",
+            encodedBytes, encodedBytes / seconds, ENCODE_SAMPLE_RATE));
+        List<PlayerSamples> players = new ArrayList<>(current.players.values());
+        players.sort((player, other) -> Long.compare(other.time.sum(), player.time.sum()));
+        for (int i = 0; i < Math.min(WORST_PLAYERS, players.size()); i++) {
+            PlayerSamples player = players.get(i);
+            lines.add(String.format(Locale.ROOT, "#%d %s: %d ops, %s total",
+                i + 1, player.name, player.operations.sum(), formatNanos(player.time.sum())));
+        }
+        return lines;
+    }
+
+    /**
+     * Get the serialized size of an NBT tag
+     *
+     * @param tag NBT tag
+     * @return Serialized size, in bytes
+     */
+    static long getSize(CompoundNBT tag) {
+        if (tag == null) {
+            return 0;
+        }
+        CountingOutputStream output = new CountingOutputStream(ByteStreams.nullOutputStream());
+        try {
+            CompressedStreamTools.write(tag, new DataOutputStream(output));
+        } catch (IOException e) {
+            return 0;
+        }
+        return output.getCount();
+    }
+
+    /**
+     * Format a duration
+     *
+     * @param nanos Duration, in nanoseconds
+     * @return Formatted duration
+     */
+    private static String formatNanos(long nanos) {
+        if (nanos >= 1_000_000L) {
+            return String.format(Locale.ROOT, "%.2fms", nanos / 1e6);
+        }
+        return String.format(Locale.ROOT, "%.1fus", nanos / 1e3);
+    }
+}
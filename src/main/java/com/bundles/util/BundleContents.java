@@ -0,0 +1,252 @@
+package com.bundles.util;
+
+import com.bundles.profiling.BundleFlightRecorder;
+import com.bundles.profiling.BundleProfiler;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundNBT;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+import static net.minecraft.item.Items.SHULKER_BOX;
+
+/**
+ * Bundle Contents.
+ * Decodes the contents of a Bundle once, lets them be
+ * changed in memory and writes them back to the
+ * Bundle Item Stack only when committed
+ *
+ * @author JimiIT92
+ */
+public abstract class BundleContents {
+
+    /**
+     * Bundle Item Stack
+     */
+    protected final ItemStack bundle;
+    /**
+     * If the contents changed since they were opened or last committed
+     */
+    protected boolean dirty;
+    /**
+     * Entries changed since the contents were opened, null until something changes
+     */
+    private BundleContentsChanges changes;
+
+    /**
+     * Constructor
+     *
+     * @param bundle Bundle Item Stack
+     */
+    protected BundleContents(ItemStack bundle) {
+        this.bundle = bundle;
+    }
+
+    /**
+     * Open the contents of a Bundle
+     *
+     * @param bundle Bundle Item Stack
+     * @return Bundle Contents
+     */
+    public static BundleContents of(ItemStack bundle) {
+        if (bundle.getItem() == SHULKER_BOX) {
+            return new ShulkerBoxContents(bundle);
+        }
+        return new BundleItemContents(bundle);
+    }
+
+    /**
+     * Get the Bundle Item Stack
+     *
+     * @return Bundle Item Stack
+     */
+    public ItemStack getBundle() {
+        return bundle;
+    }
+
+    /**
+     * Get the Bundle contents revision
+     *
+     * @return Bundle contents revision
+     */
+    public int getRevision() {
+        return BundleContentsHeader.getRevision(bundle);
+    }
+
+    /**
+     * Get the revision the contents will have once committed.
+     * Each action that changed the contents counts as one revision
+     *
+     * @param revisions How many actions changed the contents since they were opened
+     * @return Bundle contents revision once committed
+     */
+    public int getRevision(int revisions) {
+        return getRevision() + revisions;
+    }
+
+    /**
+     * Get a hash of the committed contents NBT.
+     * Bundles holding the same Item Stacks get the same hash
+     *
+     * @return Bundle contents hash
+     */
+    public abstract int getContentsHash();
+
+    /**
+     * Get the entries changed since the contents were opened
+     *
+     * @return Bundle Contents Changes
+     */
+    public BundleContentsChanges getChanges() {
+        if (changes == null) {
+            changes = new BundleContentsChanges();
+        }
+        return changes;
+    }
+
+    /**
+     * Forget the changes recorded so far.
+     * Used by transactions kept open across commits,
+     * so their changes don't pile up
+     */
+    void clearChanges() {
+        changes = null;
+    }
+
+    /**
+     * Get the Item Stacks inside the Bundle.
+     * The returned list is a read-only view
+     * and its Item Stacks must not be modified
+     *
+     * @return Bundle's Item Stacks
+     */
+    public abstract List<ItemStack> getItems();
+
+    /**
+     * Get how many Items are inside the Bundle
+     *
+     * @return Bundle Items Count
+     */
+    public abstract int getItemsCount();
+
+    /**
+     * Get the total weight of the Items inside the Bundle.
+     * Every Item weighs 1 unless the container says otherwise
+     *
+     * @return Bundle weight
+     */
+    public int getWeight() {
+        return getItemsCount();
+    }
+
+    /**
+     * Check if the Bundle is empty
+     *
+     * @return True if the Bundle is empty, False otherwise
+     */
+    public boolean isEmpty() {
+        return getItemsCount() == 0;
+    }
+
+    /**
+     * Check if the Bundle is full
+     *
+     * @return True if the Bundle is full, False otherwise
+     */
+    public abstract boolean isFull();
+
+    /**
+     * Check if an Item Stack can be added to the Bundle
+     *
+     * @param stack Item Stack to add
+     * @return True if the Item Stack can be added to the Bundle, False otherwise
+     */
+    public abstract boolean canAdd(ItemStack stack);
+
+    /**
+     * Add an Item Stack to the Bundle.
+     * The Item Stack is shrunk by the amount of Items added
+     *
+     * @param stack Item Stack to add
+     * @return How many Items have been added
+     */
+    public abstract int add(ItemStack stack);
+
+    /**
+     * Remove the first Item Stack from the Bundle
+     *
+     * @param reversed If the Item Stack should be taken from the other end of the Bundle
+     * @return Removed Item Stack or Empty Item Stack if the Bundle is empty
+     */
+    public abstract ItemStack removeFirst(boolean reversed);
+
+    /**
+     * Get the Item Stack that would be removed first,
+     * without removing it
+     *
+     * @param reversed If the Item Stack should be taken from the other end of the Bundle
+     * @return Item Stack or Empty Item Stack if the Bundle is empty
+     */
+    public abstract ItemStack peekFirst(boolean reversed);
+
+    /**
+     * Remove every Item Stack from the Bundle
+     *
+     * @return Removed Item Stacks
+     */
+    public abstract List<ItemStack> empty();
+
+    /**
+     * Apply a change recorded by another copy of the Bundle
+     *
+     * @param index Entry index
+     * @param count New entry count, 0 if the entry has been removed
+     * @param entry Entry NBT if the entry is new, null otherwise
+     */
+    protected abstract void applyChange(int index, int count, @Nullable CompoundNBT entry);
+
+    /**
+     * Write the contents back to the Bundle Item Stack.
+     * Does nothing if the contents didn't change
+     */
+    public void commit() {
+        if (dirty) {
+            Object event = BundleFlightRecorder.beginEncode();
+            write();
+            dirty = false;
+            BundleFlightRecorder.endEncode(event, bundle, getItemsCount());
+            BundleProfiler.recordEncode(bundle);
+        }
+    }
+
+    /**
+     * Write the contents back to the Bundle Item Stack
+     * after several actions, giving each one its own revision
+     *
+     * @param revisions How many actions changed the contents since they were opened
+     */
+    public void commit(int revisions) {
+        commit();
+        if (revisions > 1) {
+            BundleContentsHeader.bumpRevision(bundle.getOrCreateTag(), revisions - 1);
+        }
+    }
+
+    /**
+     * Write the contents to the Bundle Item Stack tag
+     */
+    protected abstract void write();
+
+    /**
+     * Check if two Item Stacks can be merged together
+     *
+     * @param stack Item Stack
+     * @param other Other Item Stack
+     * @return True if the Item Stacks have the same Item and tags, False otherwise
+     */
+    protected static boolean canMerge(ItemStack stack, ItemStack other) {
+        return !stack.isEmpty() && !other.isEmpty()
+            && stack.getItem() == other.getItem()
+            && ItemStack.areItemStackTagsEqual(stack, other);
+    }
+}
@@ -0,0 +1,127 @@
+package com.bundles.util;
+
+import com.bundles.profiling.BundleFlightRecorder;
+import com.bundles.profiling.BundleFrameStats;
+import com.bundles.profiling.BundleMetrics;
+import com.google.common.collect.MapMaker;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.INBT;
+import net.minecraft.nbt.ListNBT;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+
+/**
+ * Bundle Contents Cache
+ * Keeps the decoded Item Stacks of a Bundle so they
+ * don't have to be read from the NBT every time
+ *
+ * @author JimiIT92
+ */
+public final class BundleContentsCache {
+
+    /**
+     * Decoded contents, weakly keyed on the Bundle tag instance
+     */
+    private static final ConcurrentMap<CompoundNBT, CachedContents> CACHE = new MapMaker().weakKeys().makeMap();
+
+    /**
+     * Get the decoded contents of a Bundle
+     *
+     * @param bundleTag Bundle Item Stack tag
+     * @param items     Bundle Items List NBT
+     * @param counts    Bundle Items counts NBT, or null if the counts are inside the Items List NBT
+     * @param decoder   Function used to decode the Items List NBT and the counts NBT
+     * @return Read-only view of the Bundle's Item Stacks
+     */
+    public static List<ItemStack> getContents(CompoundNBT bundleTag, ListNBT items, INBT counts, BiFunction<ListNBT, INBT, List<ItemStack>> decoder) {
+        CachedContents cachedContents = CACHE.get(bundleTag);
+        if (cachedContents != null && cachedContents.isValidFor(items, counts)) {
+            BundleMetrics.countCacheLookup(true);
+            return cachedContents.items;
+        }
+        BundleMetrics.countCacheLookup(false);
+        BundleMetrics.countDecode();
+        BundleFrameStats.countDecode();
+        Object event = BundleFlightRecorder.beginDecode();
+        cachedContents = new CachedContents(items, counts, decoder.apply(items, counts));
+        BundleFlightRecorder.endDecode(event, cachedContents.items.size());
+        CACHE.put(bundleTag, cachedContents);
+        return cachedContents.items;
+    }
+
+    /**
+     * Drop the cached contents of a Bundle.
+     * Needed when the Items List NBT entries
+     * have been changed in place
+     *
+     * @param bundleTag Bundle Item Stack tag
+     */
+    public static void invalidate(CompoundNBT bundleTag) {
+        if (bundleTag != null) {
+            CACHE.remove(bundleTag);
+        }
+    }
+
+    /**
+     * Cached Bundle Contents
+     */
+    private static final class CachedContents {
+
+        /**
+         * Items List NBT the contents were decoded from
+         */
+        private final ListNBT source;
+        /**
+         * Counts NBT the contents were decoded from
+         */
+        private final INBT counts;
+        /**
+         * Entries of the Items List NBT at decoding time
+         */
+        private final INBT[] entries;
+        /**
+         * Decoded Item Stacks
+         */
+        private final List<ItemStack> items;
+
+        /**
+         * Constructor
+         *
+         * @param source Items List NBT
+         * @param counts Counts NBT
+         * @param items  Decoded Item Stacks
+         */
+        private CachedContents(ListNBT source, INBT counts, List<ItemStack> items) {
+            this.source = source;
+            this.counts = counts;
+            this.entries = source.toArray(new INBT[0]);
+            this.items = Collections.unmodifiableList(items);
+        }
+
+        /**
+         * Check if the cached contents still match the Items List NBT.
+         * Every change made to a Bundle either replaces the list,
+         * the counts or one of the entries or invalidates the cache,
+         * so comparing references is enough
+         *
+         * @param items  Items List NBT
+         * @param counts Counts NBT
+         * @return True if the cached contents are still valid, False otherwise
+         */
+        private boolean isValidFor(ListNBT items, INBT counts) {
+            if (items != source || counts != this.counts || items.size() != entries.length) {
+                return false;
+            }
+            for (int i = 0; i < entries.length; i++) {
+                if (items.get(i) != entries[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.bundles.util;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.network.PacketBuffer;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bundle Contents Changes.
+ * Records the entries changed by a Bundle Contents
+ * transaction, so they can be replayed on another copy
+ * of the same Bundle without sending the whole Bundle
+ *
+ * @author JimiIT92
+ */
+public final class BundleContentsChanges {
+
+    /**
+     * If the Bundle has been emptied before the other changes
+     */
+    private boolean emptied;
+    /**
+     * Index of each changed entry
+     */
+    private final IntArrayList indexes = new IntArrayList();
+    /**
+     * New count of each changed entry, 0 if the entry has been removed
+     */
+    private final IntArrayList counts = new IntArrayList();
+    /**
+     * NBT of each new entry, null if the entry already existed
+     */
+    private final List<CompoundNBT> entries = new ArrayList<>();
+
+    /**
+     * Record that the Bundle has been emptied
+     */
+    void recordEmpty() {
+        emptied = true;
+        indexes.clear();
+        counts.clear();
+        entries.clear();
+    }
+
+    /**
+     * Record a changed entry
+     *
+     * @param index Entry index
+     * @param count New entry count, 0 if the entry has been removed
+     * @param entry Entry NBT if the entry is new, null otherwise
+     */
+    void record(int index, int count, @Nullable CompoundNBT entry) {
+        indexes.add(index);
+        counts.add(count);
+        entries.add(entry);
+    }
+
+    /**
+     * Check if the Bundle has been emptied
+     *
+     * @return True if the Bundle has been emptied, False otherwise
+     */
+    public boolean isEmptied() {
+        return emptied;
+    }
+
+    /**
+     * Get how many entries changed
+     *
+     * @return Changed entries count
+     */
+    public int size() {
+        return indexes.size();
+    }
+
+    /**
+     * Get the index of a changed entry
+     *
+     * @param change Change index
+     * @return Entry index
+     */
+    public int getIndex(int change) {
+        return indexes.getInt(change);
+    }
+
+    /**
+     * Copy a range of the changes
+     *
+     * @param from First change index, inclusive
+     * @param to   Last change index, exclusive
+     * @return Bundle Contents Changes
+     */
+    public BundleContentsChanges copyRange(int from, int to) {
+        BundleContentsChanges changes = new BundleContentsChanges();
+        for (int i = from; i < to; i++) {
+            changes.record(indexes.getInt(i), counts.getInt(i), entries.get(i));
+        }
+        return changes;
+    }
+
+    /**
+     * Replay the changes on a Bundle Contents.
+     * The contents are not committed
+     *
+     * @param contents Bundle Contents
+     */
+    public void applyTo(BundleContents contents) {
+        if (emptied) {
+            contents.empty();
+        }
+        for (int i = 0; i < indexes.size(); i++) {
+            applyTo(contents, i);
+        }
+    }
+
+    /**
+     * Replay a single change on a Bundle Contents.
+     * The contents are not committed
+     *
+     * @param contents Bundle Contents
+     * @param change   Change index
+     */
+    public void applyTo(BundleContents contents, int change) {
+        contents.applyChange(indexes.getInt(change), counts.getInt(change), entries.get(change));
+    }
+
+    /**
+     * Deserialize the changes
+     *
+     * @param buffer Packet Buffer
+     * @return Bundle Contents Changes
+     */
+    public static BundleContentsChanges decode(PacketBuffer buffer) {
+        BundleContentsChanges changes = new BundleContentsChanges();
+        changes.emptied = buffer.readBoolean();
+        int size = buffer.readVarInt();
+        for (int i = 0; i < size; i++) {
+            int index = buffer.readVarInt();
+            int count = buffer.readVarInt();
+            CompoundNBT entry = buffer.readBoolean() ? buffer.readCompoundTag() : null;
+            changes.record(index, count, entry);
+        }
+        return changes;
+    }
+
+    /**
+     * Serialize the changes
+     *
+     * @param buffer Packet Buffer
+     */
+    public void encode(PacketBuffer buffer) {
+        buffer.writeBoolean(emptied);
+        buffer.writeVarInt(indexes.size());
+        for (int i = 0; i < indexes.size(); i++) {
+            buffer.writeVarInt(indexes.getInt(i));
+            buffer.writeVarInt(counts.getInt(i));
+            CompoundNBT entry = entries.get(i);
+            buffer.writeBoolean(entry != null);
+            if (entry != null) {
+                buffer.writeCompoundTag(entry);
+            }
+        }
+    }
+}
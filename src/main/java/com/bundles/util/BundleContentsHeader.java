@@ -0,0 +1,285 @@
+package com.bundles.util;
+
+import com.bundles.init.BundleResources;
+import com.bundles.item.BundleItem;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.fml.common.thread.EffectiveSide;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Bundle Contents Header.
+ * A small compound stored next to the Bundle Items
+ * holding the total Items count, the number of entries,
+ * the total weight, the nesting depth, the storage format
+ * version and a revision that goes up on every change.
+ * A Bundle inside another Bundle keeps its header,
+ * so the outer Bundle can read the inner weight
+ * without decoding the inner contents
+ *
+ * @author JimiIT92
+ */
+public final class BundleContentsHeader {
+
+    /**
+     * Items Count NBT key
+     */
+    private static final String COUNT_KEY = "count";
+    /**
+     * Entries Count NBT key
+     */
+    private static final String ENTRIES_KEY = "entries";
+    /**
+     * Revision NBT key
+     */
+    private static final String REVISION_KEY = "revision";
+    /**
+     * Storage Format NBT key
+     */
+    private static final String FORMAT_KEY = "format";
+    /**
+     * Weight NBT key
+     */
+    private static final String WEIGHT_KEY = "weight";
+    /**
+     * Nesting Depth NBT key
+     */
+    private static final String DEPTH_KEY = "depth";
+    /**
+     * Weights Stamp NBT key
+     */
+    private static final String WEIGHTS_KEY = "weights";
+
+    /**
+     * Check if the code is running on the logical server
+     */
+    private static BooleanSupplier serverSide = () -> EffectiveSide.get().isServer();
+
+    /**
+     * Set how to check if the code is running on the logical server.
+     * Used where the thread doesn't tell the side, like tests and benchmarks
+     *
+     * @param serverSide Server side check
+     */
+    public static void setServerSide(BooleanSupplier serverSide) {
+        BundleContentsHeader.serverSide = serverSide;
+    }
+
+    /**
+     * Get how many Items are inside the Bundle.
+     * Bundles written before the header existed
+     * are counted from their entries
+     *
+     * @param bundle Bundle Item Stack
+     * @return Bundle Items Count
+     */
+    public static int getItemsCount(ItemStack bundle) {
+        CompoundNBT header = getHeader(bundle);
+        if (header == null) {
+            return 0;
+        }
+        return header.contains(COUNT_KEY, Constants.NBT.TAG_INT) ? header.getInt(COUNT_KEY) : BundleItemFormat.computeItemsCount(bundle.getTag());
+    }
+
+    /**
+     * Get how many entries are inside the Bundle
+     *
+     * @param bundle Bundle Item Stack
+     * @return Bundle entries count
+     */
+    public static int getEntriesCount(ItemStack bundle) {
+        CompoundNBT header = getHeader(bundle);
+        if (header == null) {
+            return 0;
+        }
+        return header.contains(ENTRIES_KEY, Constants.NBT.TAG_INT) ? header.getInt(ENTRIES_KEY) : BundleItemFormat.computeEntriesCount(bundle.getTag());
+    }
+
+    /**
+     * Get the total weight of the Items inside the Bundle.
+     * If the weight has been computed with other Item weights,
+     * because the weight tags changed, it is computed again
+     * without being stored, so reading never changes the Bundle
+     *
+     * @param bundle Bundle Item Stack
+     * @return Bundle weight
+     */
+    public static int getWeight(ItemStack bundle) {
+        CompoundNBT bundleTag = bundle.getTag();
+        if (bundleTag == null) {
+            return 0;
+        }
+        CompoundNBT header = bundleTag.getCompound(BundleResources.BUNDLE_HEADER_NBT_RESOURCE_LOCATION);
+        if (isWeightCurrent(header)) {
+            return header.getInt(WEIGHT_KEY);
+        }
+        return BundleItemFormat.computeWeight(bundleTag);
+    }
+
+    /**
+     * Get how many levels of Bundles are inside the Bundle
+     *
+     * @param bundle Bundle Item Stack
+     * @return Bundle nesting depth, 0 if there are no Bundles inside
+     */
+    public static int getDepth(ItemStack bundle) {
+        CompoundNBT header = getHeader(bundle);
+        if (header == null) {
+            return 0;
+        }
+        return header.contains(DEPTH_KEY, Constants.NBT.TAG_INT) ? header.getInt(DEPTH_KEY) : BundleItemFormat.computeDepth(bundle.getTag());
+    }
+
+    /**
+     * Get the weight of a single Item of an entry.
+     * A Bundle weighs its own stored weight plus
+     * the weight of an empty Bundle. The stored weight
+     * is only computed again if the weight tags changed
+     *
+     * @param entry Item Stack entry NBT
+     * @return Item weight
+     */
+    static int getEntryWeight(CompoundNBT entry) {
+        Item item = BundleNBTReader.getItem(entry);
+        if (!(item instanceof BundleItem)) {
+            return BundleWeightIndex.getWeight(item);
+        }
+        CompoundNBT bundleTag = entry.getCompound("tag");
+        CompoundNBT header = bundleTag.getCompound(BundleResources.BUNDLE_HEADER_NBT_RESOURCE_LOCATION);
+        int weight = isWeightCurrent(header) ? header.getInt(WEIGHT_KEY) : BundleItemFormat.computeWeight(bundleTag);
+        return BundleResources.BUNDLE_WEIGHT + weight;
+    }
+
+    /**
+     * Get the nesting depth an entry adds to the Bundle holding it
+     *
+     * @param entry Item Stack entry NBT
+     * @return Entry nesting depth, 0 if the entry is not a Bundle
+     */
+    static int getEntryDepth(CompoundNBT entry) {
+        if (!(BundleNBTReader.getItem(entry) instanceof BundleItem)) {
+            return 0;
+        }
+        CompoundNBT header = getEntryHeader(entry);
+        if (header.contains(DEPTH_KEY, Constants.NBT.TAG_INT)) {
+            return header.getInt(DEPTH_KEY) + 1;
+        }
+        return BundleItemFormat.computeDepth(entry.getCompound("tag")) + 1;
+    }
+
+    /**
+     * Get the Bundle contents revision
+     *
+     * @param bundle Bundle Item Stack
+     * @return Bundle contents revision
+     */
+    public static int getRevision(ItemStack bundle) {
+        CompoundNBT bundleTag = bundle.getTag();
+        return bundleTag == null ? 0 : bundleTag.getCompound(BundleResources.BUNDLE_HEADER_NBT_RESOURCE_LOCATION).getInt(REVISION_KEY);
+    }
+
+    /**
+     * Get the storage format version of a Bundle
+     *
+     * @param bundleTag Bundle Item Stack tag
+     * @return Storage format version, 0 if the Bundle has never been written in the current format
+     */
+    public static int getFormat(CompoundNBT bundleTag) {
+        return bundleTag.getCompound(BundleResources.BUNDLE_HEADER_NBT_RESOURCE_LOCATION).getInt(FORMAT_KEY);
+    }
+
+    /**
+     * Update the header after the Bundle contents changed,
+     * bumping its revision. The client may know other Item weights
+     * and its Item Stacks can be sent back by creative mode,
+     * so the weight it stores is stamped as a client one,
+     * which the server never trusts
+     *
+     * @param bundleTag Bundle Item Stack tag
+     * @param count     Bundle Items Count
+     * @param entries   Bundle entries count
+     * @param weight    Bundle weight
+     * @param depth     Bundle nesting depth
+     */
+    public static void update(CompoundNBT bundleTag, int count, int entries, int weight, int depth) {
+        CompoundNBT header = bundleTag.getCompound(BundleResources.BUNDLE_HEADER_NBT_RESOURCE_LOCATION);
+        header.putInt(COUNT_KEY, count);
+        header.putInt(ENTRIES_KEY, entries);
+        header.putInt(WEIGHT_KEY, weight);
+        header.putInt(WEIGHTS_KEY, serverSide.getAsBoolean() ? BundleWeightIndex.getStamp() : ~BundleWeightIndex.getStamp());
+        header.putInt(DEPTH_KEY, depth);
+        header.putInt(REVISION_KEY, header.getInt(REVISION_KEY) + 1);
+        header.putInt(FORMAT_KEY, BundleItemFormat.FORMAT);
+        bundleTag.put(BundleResources.BUNDLE_HEADER_NBT_RESOURCE_LOCATION, header);
+    }
+
+    /**
+     * Bump the revision of a container that
+     * doesn't keep the other header values
+     *
+     * @param bundleTag Bundle Item Stack tag
+     */
+    public static void bumpRevision(CompoundNBT bundleTag) {
+        bumpRevision(bundleTag, 1);
+    }
+
+    /**
+     * Bump the revision of a Bundle by more than one,
+     * when several actions have been written at once
+     *
+     * @param bundleTag Bundle Item Stack tag
+     * @param amount    How many revisions to add
+     */
+    public static void bumpRevision(CompoundNBT bundleTag, int amount) {
+        CompoundNBT header = bundleTag.getCompound(BundleResources.BUNDLE_HEADER_NBT_RESOURCE_LOCATION);
+        header.putInt(REVISION_KEY, header.getInt(REVISION_KEY) + amount);
+        bundleTag.put(BundleResources.BUNDLE_HEADER_NBT_RESOURCE_LOCATION, header);
+    }
+
+    /**
+     * Get the header of a Bundle.
+     * Bundles created before the header existed
+     * get it the first time their contents change
+     *
+     * @param bundle Bundle Item Stack
+     * @return Bundle header or null if the Bundle has no tag
+     */
+    private static CompoundNBT getHeader(ItemStack bundle) {
+        CompoundNBT bundleTag = bundle.getTag();
+        if (bundleTag == null) {
+            return null;
+        }
+        return bundleTag.getCompound(BundleResources.BUNDLE_HEADER_NBT_RESOURCE_LOCATION);
+    }
+
+    /**
+     * Get the header of a Bundle stored as an entry
+     * of another Bundle
+     *
+     * @param entry Item Stack entry NBT
+     * @return Bundle header, empty if the Bundle has no header
+     */
+    private static CompoundNBT getEntryHeader(CompoundNBT entry) {
+        return entry.getCompound("tag").getCompound(BundleResources.BUNDLE_HEADER_NBT_RESOURCE_LOCATION);
+    }
+
+    /**
+     * Check if the weight inside a header has been
+     * computed with the current Item weights.
+     * The client trusts both its own weights and the server ones,
+     * while the server only trusts its own
+     *
+     * @param header Bundle header
+     * @return True if the weight is current, False otherwise
+     */
+    private static boolean isWeightCurrent(CompoundNBT header) {
+        if (!header.contains(WEIGHT_KEY, Constants.NBT.TAG_INT) || !header.contains(WEIGHTS_KEY, Constants.NBT.TAG_INT)) {
+            return false;
+        }
+        int stamp = header.getInt(WEIGHTS_KEY);
+        return stamp == BundleWeightIndex.getStamp() || (stamp == ~BundleWeightIndex.getStamp() && !serverSide.getAsBoolean());
+    }
+}
@@ -0,0 +1,123 @@
+package com.bundles.util;
+
+import com.bundles.init.BundleResources;
+import net.minecraft.block.Block;
+import net.minecraft.item.BlockItem;
+import net.minecraft.item.Item;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.tags.ITag;
+import net.minecraft.tags.ITagCollection;
+import net.minecraft.tags.ItemTags;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.util.BitSet;
+
+/**
+ * Bundle Ignore Index.
+ * Registry id indexed set of the Items that can't be put
+ * inside a Bundle, built from the ignored Items and Blocks tags.
+ * The index is immutable once built, so it can be read from
+ * any thread, and it is built again whenever the tags change
+ *
+ * @author JimiIT92
+ */
+@Mod.EventBusSubscriber(modid = BundleResources.MOD_ID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public final class BundleIgnoreIndex {
+
+    /**
+     * Current index, null until built
+     */
+    private static volatile Index index;
+
+    /**
+     * Ignored Items, along with the tags they come from
+     */
+    private static final class Index {
+
+        /**
+         * Registry ids of the ignored Items
+         */
+        private final BitSet ignored;
+        /**
+         * Item tags the index has been built from
+         */
+        private final ITagCollection<Item> itemTags;
+        /**
+         * Block tags the index has been built from
+         */
+        private final ITagCollection<Block> blockTags;
+
+        /**
+         * Constructor
+         *
+         * @param ignored   Registry ids of the ignored Items
+         * @param itemTags  Item tags
+         * @param blockTags Block tags
+         */
+        private Index(BitSet ignored, ITagCollection<Item> itemTags, ITagCollection<Block> blockTags) {
+            this.ignored = ignored;
+            this.itemTags = itemTags;
+            this.blockTags = blockTags;
+        }
+    }
+
+    /**
+     * Check if an Item can't be put inside a Bundle
+     *
+     * @param item Item
+     * @return True if the Item is ignored, False otherwise
+     */
+    public static boolean isIgnored(Item item) {
+        ITagCollection<Item> itemTags = ItemTags.getCollection();
+        ITagCollection<Block> blockTags = BlockTags.getCollection();
+        Index current = index;
+        if (current == null || current.itemTags != itemTags || current.blockTags != blockTags) {
+            current = build(itemTags, blockTags);
+        }
+        return current.ignored.get(Item.getIdFromItem(item));
+    }
+
+    /**
+     * Drop the index when the tags are reloaded
+     *
+     * @param event Tags Updated Event
+     */
+    @SubscribeEvent
+    public static void onTagsUpdated(final TagsUpdatedEvent event) {
+        index = null;
+    }
+
+    /**
+     * Build the index from the tags.
+     * Block Items are ignored if their Block is inside the
+     * ignored Blocks tag, other Items if they are inside
+     * the ignored Items tag
+     *
+     * @param itemTags  Item tags
+     * @param blockTags Block tags
+     * @return Index
+     */
+    private static synchronized Index build(ITagCollection<Item> itemTags, ITagCollection<Block> blockTags) {
+        Index current = index;
+        if (current != null && current.itemTags == itemTags && current.blockTags == blockTags) {
+            return current;
+        }
+        ITag<Item> itemTag = itemTags.get(BundleResources.BUNDLE_IGNORED_ITEMS_TAG);
+        ITag<Block> blockTag = blockTags.get(BundleResources.BUNDLE_IGNORED_BLOCKS_TAG);
+        BitSet ignored = new BitSet();
+        for (Item item : ForgeRegistries.ITEMS) {
+            boolean isIgnored = item instanceof BlockItem
+                ? blockTag != null && blockTag.contains(((BlockItem) item).getBlock())
+                : itemTag != null && itemTag.contains(item);
+            if (isIgnored) {
+                ignored.set(Item.getIdFromItem(item));
+            }
+        }
+        current = new Index(ignored, itemTags, blockTags);
+        index = current;
+        return current;
+    }
+}
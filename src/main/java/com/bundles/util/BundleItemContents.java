@@ -0,0 +1,408 @@
+package com.bundles.util;
+
+import com.bundles.init.BundleConfig;
+import com.bundles.init.BundleResources;
+import com.bundles.item.BundleItem;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundNBT;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Contents of a Bundle Item.
+ * Works on the palette prototypes and the entry counts
+ * and only creates Item Stacks for the entries taken out.
+ * Entries may share the same prototype NBT,
+ * so prototypes are never changed in place
+ *
+ * @author JimiIT92
+ */
+final class BundleItemContents extends BundleContents {
+
+    /**
+     * Prototype NBT of each entry, null until indexed
+     */
+    private List<CompoundNBT> entries;
+    /**
+     * Item count of each entry
+     */
+    private IntArrayList counts;
+    /**
+     * Bundle Items Count, -1 until read
+     */
+    private int count = -1;
+    /**
+     * Bundle weight, -1 until read
+     */
+    private int weight = -1;
+    /**
+     * If an entry has been added or removed since the
+     * last commit, so the palette must be written again
+     */
+    private boolean reencode;
+
+    /**
+     * Constructor
+     *
+     * @param bundle Bundle Item Stack
+     */
+    BundleItemContents(ItemStack bundle) {
+        super(bundle);
+    }
+
+    @Override
+    public List<ItemStack> getItems() {
+        if (!dirty) {
+            return readCachedItems();
+        }
+        List<ItemStack> items = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            items.add(readEntry(i));
+        }
+        return Collections.unmodifiableList(items);
+    }
+
+    @Override
+    public int getContentsHash() {
+        CompoundNBT bundleTag = bundle.getTag();
+        return bundleTag == null ? 0 : BundleItemFormat.getContentsHash(bundleTag);
+    }
+
+    @Override
+    public int getItemsCount() {
+        if (count < 0) {
+            count = BundleContentsHeader.getItemsCount(bundle);
+        }
+        return count;
+    }
+
+    @Override
+    public int getWeight() {
+        if (weight < 0) {
+            weight = BundleContentsHeader.getWeight(bundle);
+        }
+        return weight;
+    }
+
+    @Override
+    public boolean isFull() {
+        return getWeight() >= bundle.getMaxDamage();
+    }
+
+    @Override
+    public boolean canAdd(ItemStack stack) {
+        if (stack.isEmpty() || BundleItemUtils.isIgnored(stack) || isFull()) {
+            return false;
+        }
+        if (BundleItemUtils.isBundle(stack)) {
+            return canAddBundle(stack);
+        }
+        return getWeight() + getItemWeight(stack) <= bundle.getMaxDamage();
+    }
+
+    @Override
+    public int add(ItemStack stack) {
+        return add(stack, getAddIndex(stack));
+    }
+
+    /**
+     * Add an Item Stack to a given entry of the Bundle.
+     * The Item Stack is shrunk by the amount of Items added
+     *
+     * @param stack Item Stack to add
+     * @param index Entry to merge the Item Stack into, or the entries count to make a new entry
+     * @return How many Items have been added
+     */
+    int add(ItemStack stack, int index) {
+        int itemsToAdd = canAddAt(stack, index) ? getAddCount(stack, index) : 0;
+        if (itemsToAdd == 0) {
+            return 0;
+        }
+        int itemWeight = getItemWeight(stack);
+        if (index < entries.size()) {
+            counts.set(index, counts.getInt(index) + itemsToAdd);
+            getChanges().record(index, counts.getInt(index), null);
+        } else {
+            CompoundNBT entry = BundleItemFormat.toPrototype(stack.write(new CompoundNBT()));
+            entries.add(entry);
+            counts.add(itemsToAdd);
+            getChanges().record(index, itemsToAdd, entry);
+            reencode = true;
+        }
+        stack.shrink(itemsToAdd);
+        count = getItemsCount() + itemsToAdd;
+        weight = getWeight() + itemsToAdd * itemWeight;
+        dirty = true;
+        return itemsToAdd;
+    }
+
+    @Override
+    public ItemStack removeFirst(boolean reversed) {
+        index();
+        if (entries.isEmpty()) {
+            return ItemStack.EMPTY;
+        }
+        return extract(reversed ? 0 : entries.size() - 1, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public ItemStack peekFirst(boolean reversed) {
+        index();
+        if (entries.isEmpty()) {
+            return ItemStack.EMPTY;
+        }
+        return readEntry(reversed ? 0 : entries.size() - 1);
+    }
+
+    /**
+     * Get the entry an Item Stack would be added to
+     *
+     * @param stack Item Stack
+     * @return Entry index, or the entries count if a new entry would be made
+     */
+    int getAddIndex(ItemStack stack) {
+        index();
+        int index = stack.getMaxStackSize() > 1 ? findPartialEntry(stack) : -1;
+        return index == -1 ? entries.size() : index;
+    }
+
+    /**
+     * Check if an Item Stack can go into a given entry.
+     * An existing entry only takes the same Item and tags
+     * while below the max stack size, the entries count
+     * always makes a new entry
+     *
+     * @param stack Item Stack
+     * @param index Entry index
+     * @return True if the Item Stack can be merged into the entry or make a new one, False otherwise
+     */
+    boolean canAddAt(ItemStack stack, int index) {
+        index();
+        if (index == entries.size()) {
+            return true;
+        }
+        return index >= 0 && index < entries.size()
+            && counts.getInt(index) < stack.getMaxStackSize()
+            && BundleNBTReader.matches(entries.get(index), stack);
+    }
+
+    /**
+     * Get how many Items of an Item Stack would be added
+     *
+     * @param stack Item Stack
+     * @param index Entry the Item Stack would be added to
+     * @return Items count, 0 if the Item Stack can't be added
+     */
+    int getAddCount(ItemStack stack, int index) {
+        if (!canAdd(stack)) {
+            return 0;
+        }
+        int itemsToAdd = Math.min(getMaxStackSizeForBundleToInsert(stack), (bundle.getMaxDamage() - getWeight()) / getItemWeight(stack));
+        if (index < entries.size()) {
+            itemsToAdd = Math.min(itemsToAdd, stack.getMaxStackSize() - counts.getInt(index));
+        }
+        return Math.max(0, itemsToAdd);
+    }
+
+    /**
+     * Take some Items out of an entry
+     *
+     * @param index  Entry index
+     * @param amount Max Items to take
+     * @return Taken Item Stack or Empty Item Stack if the entry doesn't exist
+     */
+    ItemStack extract(int index, int amount) {
+        index();
+        if (index < 0 || index >= entries.size() || amount <= 0) {
+            return ItemStack.EMPTY;
+        }
+        int entryCount = counts.getInt(index);
+        ItemStack stack = readEntry(index);
+        stack.setCount(Math.min(amount, entryCount));
+        weight = getWeight() - stack.getCount() * BundleContentsHeader.getEntryWeight(entries.get(index));
+        count = getItemsCount() - stack.getCount();
+        if (stack.getCount() == entryCount) {
+            entries.remove(index);
+            counts.removeInt(index);
+            getChanges().record(index, 0, null);
+            reencode = true;
+        } else {
+            counts.set(index, entryCount - stack.getCount());
+            getChanges().record(index, entryCount - stack.getCount(), null);
+        }
+        dirty = true;
+        return stack;
+    }
+
+    @Override
+    public List<ItemStack> empty() {
+        index();
+        if (entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ItemStack> removed = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            removed.add(readEntry(i));
+        }
+        entries.clear();
+        counts.clear();
+        count = 0;
+        weight = 0;
+        dirty = true;
+        reencode = true;
+        getChanges().recordEmpty();
+        return removed;
+    }
+
+    @Override
+    protected void applyChange(int index, int count, CompoundNBT entry) {
+        index();
+        int itemsCount = getItemsCount();
+        int itemsWeight = getWeight();
+        if (entry != null) {
+            entries.add(index, entry);
+            counts.add(index, count);
+            itemsCount += count;
+            itemsWeight += count * BundleContentsHeader.getEntryWeight(entry);
+            reencode = true;
+        } else if (count == 0) {
+            itemsCount -= counts.getInt(index);
+            itemsWeight -= counts.getInt(index) * BundleContentsHeader.getEntryWeight(entries.get(index));
+            entries.remove(index);
+            counts.removeInt(index);
+            reencode = true;
+        } else {
+            itemsCount += count - counts.getInt(index);
+            itemsWeight += (count - counts.getInt(index)) * BundleContentsHeader.getEntryWeight(entries.get(index));
+            counts.set(index, count);
+        }
+        this.count = itemsCount;
+        this.weight = itemsWeight;
+        dirty = true;
+    }
+
+    @Override
+    protected void write() {
+        CompoundNBT bundleTag = bundle.getOrCreateTag();
+        int depth;
+        // If only the counts of existing entries changed, the palette is kept
+        if (!reencode && BundleItemFormat.writeCounts(bundleTag, counts)) {
+            depth = BundleContentsHeader.getDepth(bundle);
+        } else {
+            BundleItemFormat.write(bundleTag, entries, counts);
+            depth = 0;
+            for (CompoundNBT entry : entries) {
+                depth = Math.max(depth, BundleContentsHeader.getEntryDepth(entry));
+            }
+        }
+        reencode = false;
+        BundleContentsHeader.update(bundleTag, getItemsCount(), entries.size(), getWeight(), depth);
+        BundleContentsCache.invalidate(bundleTag);
+    }
+
+    /**
+     * Index the Bundle entries, if not already indexed.
+     * Only unpacks the prototype and count of each entry,
+     * without decoding any Item Stack or changing the Bundle tag
+     */
+    private void index() {
+        if (entries != null) {
+            return;
+        }
+        entries = new ArrayList<>();
+        counts = new IntArrayList();
+        CompoundNBT bundleTag = bundle.getTag();
+        BundleItemFormat.readEntries(bundleTag, entries, counts);
+    }
+
+    /**
+     * Check if a Bundle can be put inside this Bundle.
+     * Only the inner Bundle header is read, so the check
+     * costs the same however deep the inner Bundle is
+     *
+     * @param stack Bundle Item Stack
+     * @return True if the Bundle fits and doesn't go over the nesting limit, False otherwise
+     */
+    private boolean canAddBundle(ItemStack stack) {
+        if (!(stack.getItem() instanceof BundleItem)) {
+            return false;
+        }
+        return BundleContentsHeader.getDepth(stack) < BundleConfig.MAX_NESTING_DEPTH.get()
+            && getWeight() + getItemWeight(stack) <= bundle.getMaxDamage();
+    }
+
+    /**
+     * Find the entry an Item Stack can be merged into.
+     * Entries never go over the Item max stack size,
+     * so they can always be taken out as a single stack
+     *
+     * @param stack Item Stack
+     * @return Entry index or -1 if not found
+     */
+    private int findPartialEntry(ItemStack stack) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (counts.getInt(i) < stack.getMaxStackSize() && BundleNBTReader.matches(entries.get(i), stack)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decode the Item Stack of an entry.
+     * The prototype is copied, since it may be
+     * shared with other entries
+     *
+     * @param index Entry index
+     * @return Entry Item Stack
+     */
+    private ItemStack readEntry(int index) {
+        ItemStack stack = ItemStack.read(entries.get(index).copy());
+        stack.setCount(counts.getInt(index));
+        return stack;
+    }
+
+    /**
+     * Get the cached Bundle Item Stacks
+     *
+     * @return Bundle's Item Stacks
+     */
+    private List<ItemStack> readCachedItems() {
+        CompoundNBT bundleTag = bundle.getTag();
+        if (bundleTag == null) {
+            return Collections.emptyList();
+        }
+        if (BundleItemFormat.isLegacy(bundleTag)) {
+            return BundleContentsCache.getContents(bundleTag, BundleItemFormat.getLegacyItems(bundleTag),
+                null, BundleItemFormat::readLegacyItems);
+        }
+        return BundleContentsCache.getContents(bundleTag, BundleItemFormat.getPalette(bundleTag),
+            BundleItemFormat.getPackedEntriesNbt(bundleTag), BundleItemFormat::readItems);
+    }
+
+    /**
+     * Get the weight of a single Item of an Item Stack
+     *
+     * @param stack Item Stack
+     * @return Item weight
+     */
+    private static int getItemWeight(ItemStack stack) {
+        return stack.getItem() instanceof BundleItem
+            ? BundleResources.BUNDLE_WEIGHT + BundleContentsHeader.getWeight(stack)
+            : BundleWeightIndex.getWeight(stack.getItem());
+    }
+
+    /**
+     * Get the max stack size for an Item Stack
+     * to be put inside a Bundle
+     *
+     * @param stack Item Stack
+     * @return Max stack size for a Bundle
+     */
+    private static int getMaxStackSizeForBundleToInsert(ItemStack stack) {
+        return Math.max(1, Math.min(stack.getCount(), stack.getMaxStackSize() / 2));
+    }
+}
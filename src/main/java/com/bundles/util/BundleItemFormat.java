@@ -0,0 +1,339 @@
+package com.bundles.util;
+
+import com.bundles.init.BundleResources;
+import it.unimi.dsi.fastutil.ints.IntList;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.INBT;
+import net.minecraft.nbt.IntArrayNBT;
+import net.minecraft.nbt.ListNBT;
+import net.minecraftforge.common.util.Constants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Bundle Item Format.
+ * Bundle Items are stored as a palette of the distinct
+ * Item Stacks, each written once with a Count of 1,
+ * and a packed int array holding the palette index
+ * and the count of every entry, in order.
+ * Bundles using the old list of full Item Stacks
+ * are read as they are and only written in the
+ * current format the first time their contents change
+ *
+ * @author JimiIT92
+ */
+final class BundleItemFormat {
+
+    /**
+     * Current storage format version
+     */
+    static final int FORMAT = 2;
+    /**
+     * Bits of a packed entry used by the count
+     */
+    private static final int COUNT_BITS = 16;
+    /**
+     * Mask of the count inside a packed entry
+     */
+    private static final int COUNT_MASK = (1 << COUNT_BITS) - 1;
+
+    /**
+     * Check if a Bundle still uses the old list of full Item Stacks
+     *
+     * @param bundleTag Bundle Item Stack tag
+     * @return True if the Bundle has not been written in the current format yet, False otherwise
+     */
+    static boolean isLegacy(CompoundNBT bundleTag) {
+        return bundleTag != null
+            && BundleContentsHeader.getFormat(bundleTag) < FORMAT
+            && bundleTag.contains(BundleResources.BUNDLE_ITEMS_LIST_NBT_RESOURCE_LOCATION, Constants.NBT.TAG_LIST);
+    }
+
+    /**
+     * Get the old list of full Item Stacks
+     *
+     * @param bundleTag Bundle Item Stack tag
+     * @return Items List NBT
+     */
+    static ListNBT getLegacyItems(CompoundNBT bundleTag) {
+        return bundleTag.getList(BundleResources.BUNDLE_ITEMS_LIST_NBT_RESOURCE_LOCATION, Constants.NBT.TAG_COMPOUND);
+    }
+
+    /**
+     * Read the prototype and the count of every entry,
+     * in either format, without changing the Bundle tag
+     *
+     * @param bundleTag Bundle Item Stack tag
+     * @param entries   Filled with the prototype of each entry
+     * @param counts    Filled with the Item count of each entry
+     */
+    static void readEntries(CompoundNBT bundleTag, List<CompoundNBT> entries, IntList counts) {
+        forEachEntry(bundleTag, (entry, count) -> {
+            entries.add(entry.getByte("Count") == 1 ? entry : toPrototype(entry.copy()));
+            counts.add(count);
+        });
+    }
+
+    /**
+     * Run an action for the NBT and the count of every entry,
+     * in either format. Entries of the old format still
+     * hold their own count and must not be changed
+     *
+     * @param bundleTag Bundle Item Stack tag
+     * @param action    Action to run
+     */
+    static void forEachEntry(CompoundNBT bundleTag, ObjIntConsumer<CompoundNBT> action) {
+        if (bundleTag == null) {
+            return;
+        }
+        if (isLegacy(bundleTag)) {
+            ListNBT itemsNbt = getLegacyItems(bundleTag);
+            for (int i = 0; i < itemsNbt.size(); i++) {
+                CompoundNBT entry = itemsNbt.getCompound(i);
+                int entryCount = BundleNBTReader.getCount(entry);
+                if (entryCount > 0) {
+                    action.accept(entry, entryCount);
+                }
+            }
+            return;
+        }
+        ListNBT palette = getPalette(bundleTag);
+        for (int packed : getPackedEntries(getPackedEntriesNbt(bundleTag))) {
+            int paletteIndex = getPaletteIndex(packed);
+            if (paletteIndex < palette.size()) {
+                action.accept(palette.getCompound(paletteIndex), getCount(packed));
+            }
+        }
+    }
+
+    /**
+     * Turn an Item Stack entry into a palette prototype
+     *
+     * @param entry Item Stack entry NBT
+     * @return Prototype NBT
+     */
+    static CompoundNBT toPrototype(CompoundNBT entry) {
+        entry.putByte("Count", (byte) 1);
+        return entry;
+    }
+
+    /**
+     * Write the Bundle entries.
+     * Equal prototypes are only written once
+     * and the old list of full Item Stacks is removed
+     *
+     * @param bundleTag Bundle Item Stack tag
+     * @param entries   Prototype of each entry
+     * @param counts    Item count of each entry
+     */
+    static void write(CompoundNBT bundleTag, List<CompoundNBT> entries, IntList counts) {
+        ListNBT palette = new ListNBT();
+        Map<CompoundNBT, Integer> paletteIndexes = new HashMap<>();
+        int[] packed = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            CompoundNBT entry = entries.get(i);
+            Integer paletteIndex = paletteIndexes.get(entry);
+            if (paletteIndex == null) {
+                paletteIndex = palette.size();
+                palette.add(entry);
+                paletteIndexes.put(entry, paletteIndex);
+            }
+            packed[i] = (paletteIndex << COUNT_BITS) | (counts.getInt(i) & COUNT_MASK);
+        }
+        bundleTag.put(BundleResources.BUNDLE_PALETTE_NBT_RESOURCE_LOCATION, palette);
+        bundleTag.put(BundleResources.BUNDLE_COUNTS_NBT_RESOURCE_LOCATION, new IntArrayNBT(packed));
+        bundleTag.remove(BundleResources.BUNDLE_ITEMS_LIST_NBT_RESOURCE_LOCATION);
+    }
+
+    /**
+     * Write the entry counts in place, keeping the palette.
+     * Only works if no entry has been added or removed
+     * since the Bundle was last written in the current format
+     *
+     * @param bundleTag Bundle Item Stack tag
+     * @param counts    Item count of each entry
+     * @return True if the counts have been written, False if the whole Bundle must be written again
+     */
+    static boolean writeCounts(CompoundNBT bundleTag, IntList counts) {
+        INBT packedEntries = getPackedEntriesNbt(bundleTag);
+        if (isLegacy(bundleTag) || !(packedEntries instanceof IntArrayNBT)) {
+            return false;
+        }
+        int[] packed = ((IntArrayNBT) packedEntries).getIntArray();
+        if (packed.length != counts.size()) {
+            return false;
+        }
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = (getPaletteIndex(packed[i]) << COUNT_BITS) | (counts.getInt(i) & COUNT_MASK);
+        }
+        return true;
+    }
+
+    /**
+     * Get the Bundle palette
+     *
+     * @param bundleTag Bundle Item Stack tag
+     * @return Palette List NBT
+     */
+    static ListNBT getPalette(CompoundNBT bundleTag) {
+        return bundleTag.getList(BundleResources.BUNDLE_PALETTE_NBT_RESOURCE_LOCATION, Constants.NBT.TAG_COMPOUND);
+    }
+
+    /**
+     * Get the Bundle packed entries NBT
+     *
+     * @param bundleTag Bundle Item Stack tag
+     * @return Packed entries NBT, or null if missing
+     */
+    static INBT getPackedEntriesNbt(CompoundNBT bundleTag) {
+        return bundleTag.get(BundleResources.BUNDLE_COUNTS_NBT_RESOURCE_LOCATION);
+    }
+
+    /**
+     * Get the Bundle packed entries as an int array.
+     * The array is not copied and must not be modified
+     *
+     * @param packedEntries Packed entries NBT
+     * @return Packed entries
+     */
+    static int[] getPackedEntries(INBT packedEntries) {
+        return packedEntries instanceof IntArrayNBT ? ((IntArrayNBT) packedEntries).getIntArray() : new int[0];
+    }
+
+    /**
+     * Get the palette index of a packed entry
+     *
+     * @param packed Packed entry
+     * @return Palette index
+     */
+    static int getPaletteIndex(int packed) {
+        return packed >>> COUNT_BITS;
+    }
+
+    /**
+     * Get the Item count of a packed entry
+     *
+     * @param packed Packed entry
+     * @return Item count
+     */
+    static int getCount(int packed) {
+        return packed & COUNT_MASK;
+    }
+
+    /**
+     * Compute the total weight of a Bundle from its entries
+     *
+     * @param bundleTag Bundle Item Stack tag
+     * @return Bundle weight
+     */
+    static int computeWeight(CompoundNBT bundleTag) {
+        int[] weight = new int[1];
+        forEachEntry(bundleTag, (entry, count) -> weight[0] += count * BundleContentsHeader.getEntryWeight(entry));
+        return weight[0];
+    }
+
+    /**
+     * Compute the total Items count of a Bundle from its entries
+     *
+     * @param bundleTag Bundle Item Stack tag
+     * @return Bundle Items count
+     */
+    static int computeItemsCount(CompoundNBT bundleTag) {
+        int[] itemsCount = new int[1];
+        forEachEntry(bundleTag, (entry, count) -> itemsCount[0] += count);
+        return itemsCount[0];
+    }
+
+    /**
+     * Compute the entries count of a Bundle
+     *
+     * @param bundleTag Bundle Item Stack tag
+     * @return Bundle entries count
+     */
+    static int computeEntriesCount(CompoundNBT bundleTag) {
+        int[] entries = new int[1];
+        forEachEntry(bundleTag, (entry, count) -> entries[0]++);
+        return entries[0];
+    }
+
+    /**
+     * Compute the nesting depth of a Bundle from its entries
+     *
+     * @param bundleTag Bundle Item Stack tag
+     * @return Bundle nesting depth, 0 if there are no Bundles inside
+     */
+    static int computeDepth(CompoundNBT bundleTag) {
+        int[] depth = new int[1];
+        forEachEntry(bundleTag, (entry, count) -> depth[0] = Math.max(depth[0], BundleContentsHeader.getEntryDepth(entry)));
+        return depth[0];
+    }
+
+    /**
+     * Get a hash of the Bundle contents
+     *
+     * @param bundleTag Bundle Item Stack tag
+     * @return Contents hash
+     */
+    static int getContentsHash(CompoundNBT bundleTag) {
+        if (isLegacy(bundleTag)) {
+            return getLegacyItems(bundleTag).hashCode();
+        }
+        return 31 * getPalette(bundleTag).hashCode() + Arrays.hashCode(getPackedEntries(getPackedEntriesNbt(bundleTag)));
+    }
+
+    /**
+     * Decode the Item Stacks of a Bundle
+     * still using the old list of full Item Stacks
+     *
+     * @param items  Items List NBT
+     * @param counts Unused, the counts are inside the Items List NBT
+     * @return Bundle's Item Stacks
+     */
+    static List<ItemStack> readLegacyItems(ListNBT items, INBT counts) {
+        List<ItemStack> stacks = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            ItemStack stack = ItemStack.read(items.getCompound(i));
+            if (!stack.isEmpty()) {
+                stacks.add(stack);
+            }
+        }
+        return stacks;
+    }
+
+    /**
+     * Decode the Item Stacks of a Bundle.
+     * Each prototype is only decoded once
+     * and copied for the other entries using it
+     *
+     * @param palette       Palette List NBT
+     * @param packedEntries Packed entries NBT
+     * @return Bundle's Item Stacks
+     */
+    static List<ItemStack> readItems(ListNBT palette, INBT packedEntries) {
+        int[] packed = getPackedEntries(packedEntries);
+        ItemStack[] prototypes = new ItemStack[palette.size()];
+        List<ItemStack> items = new ArrayList<>(packed.length);
+        for (int entry : packed) {
+            int paletteIndex = getPaletteIndex(entry);
+            if (paletteIndex >= prototypes.length) {
+                continue;
+            }
+            ItemStack stack;
+            if (prototypes[paletteIndex] == null || prototypes[paletteIndex].isEmpty()) {
+                stack = ItemStack.read(palette.getCompound(paletteIndex));
+                prototypes[paletteIndex] = stack;
+            } else {
+                stack = prototypes[paletteIndex].copy();
+            }
+            stack.setCount(getCount(entry));
+            items.add(stack);
+        }
+        return items;
+    }
+}
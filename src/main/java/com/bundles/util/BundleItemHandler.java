@@ -0,0 +1,181 @@
+package com.bundles.util;
+
+import com.bundles.init.BundleResources;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.util.Direction;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import net.minecraftforge.common.util.LazyOptional;
+import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemHandlerHelper;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bundle Item Handler.
+ * Exposes the Bundle contents to pipes, hoppers and other
+ * automation. Every entry is a Slot, plus one last empty Slot
+ * to insert new Items. An entry Slot only accepts more of the
+ * same Item Stack, up to its max stack size, while the last
+ * Slot always makes a new entry.
+ * The handler keeps a single contents transaction open, together
+ * with the decoded Item Stacks, and keeps both up to date itself;
+ * they are only opened and decoded again if the Bundle changes
+ * somewhere else, which is told by its revision
+ *
+ * @author JimiIT92
+ */
+public final class BundleItemHandler implements IItemHandler, ICapabilityProvider {
+
+    /**
+     * Bundle Item Stack
+     */
+    private final ItemStack bundle;
+    /**
+     * Capability holder
+     */
+    private final LazyOptional<IItemHandler> holder = LazyOptional.of(() -> this);
+    /**
+     * Bundle contents transaction, null until opened
+     */
+    private BundleItemContents contents;
+    /**
+     * Decoded Item Stacks, null until decoded
+     */
+    private List<ItemStack> items;
+    /**
+     * Bundle tag the Item Stacks have been decoded from
+     */
+    private CompoundNBT tag;
+    /**
+     * Bundle revision the Item Stacks match
+     */
+    private int revision;
+
+    /**
+     * Constructor
+     *
+     * @param bundle Bundle Item Stack
+     */
+    public BundleItemHandler(ItemStack bundle) {
+        this.bundle = bundle;
+    }
+
+    @Nonnull
+    @Override
+    public <T> LazyOptional<T> getCapability(@Nonnull Capability<T> cap, @Nullable Direction side) {
+        return CapabilityItemHandler.ITEM_HANDLER_CAPABILITY.orEmpty(cap, holder);
+    }
+
+    @Override
+    public int getSlots() {
+        return getItems().size() + 1;
+    }
+
+    @Nonnull
+    @Override
+    public ItemStack getStackInSlot(int slot) {
+        List<ItemStack> bundleItems = getItems();
+        return slot >= 0 && slot < bundleItems.size() ? bundleItems.get(slot) : ItemStack.EMPTY;
+    }
+
+    @Nonnull
+    @Override
+    public ItemStack insertItem(int slot, @Nonnull ItemStack stack, boolean simulate) {
+        if (stack.isEmpty()) {
+            return stack;
+        }
+        List<ItemStack> bundleItems = getItems();
+        int added = contents.canAddAt(stack, slot) ? contents.getAddCount(stack, slot) : 0;
+        if (added == 0) {
+            return stack;
+        }
+        if (!simulate) {
+            contents.add(stack.copy(), slot);
+            commit();
+            if (slot < bundleItems.size()) {
+                bundleItems.get(slot).grow(added);
+            } else {
+                bundleItems.add(ItemHandlerHelper.copyStackWithSize(stack, added));
+            }
+        }
+        return ItemHandlerHelper.copyStackWithSize(stack, stack.getCount() - added);
+    }
+
+    @Nonnull
+    @Override
+    public ItemStack extractItem(int slot, int amount, boolean simulate) {
+        List<ItemStack> bundleItems = getItems();
+        if (amount <= 0 || slot < 0 || slot >= bundleItems.size()) {
+            return ItemStack.EMPTY;
+        }
+        ItemStack stack = bundleItems.get(slot);
+        int extracted = Math.min(amount, Math.min(stack.getCount(), stack.getMaxStackSize()));
+        if (simulate) {
+            return ItemHandlerHelper.copyStackWithSize(stack, extracted);
+        }
+        ItemStack extractedStack = contents.extract(slot, extracted);
+        commit();
+        if (extracted == stack.getCount()) {
+            bundleItems.remove(slot);
+        } else {
+            stack.shrink(extracted);
+        }
+        return extractedStack;
+    }
+
+    @Override
+    public int getSlotLimit(int slot) {
+        List<ItemStack> bundleItems = getItems();
+        return slot >= 0 && slot < bundleItems.size() ? bundleItems.get(slot).getMaxStackSize() : BundleResources.MAX_BUNDLE_ITEMS;
+    }
+
+    @Override
+    public boolean isItemValid(int slot, @Nonnull ItemStack stack) {
+        getItems();
+        return contents.canAdd(stack) && contents.canAddAt(stack, slot);
+    }
+
+    /**
+     * Get the decoded Item Stacks, opening the contents
+     * and decoding them again if the Bundle changed somewhere else
+     *
+     * @return Bundle's Item Stacks
+     */
+    private List<ItemStack> getItems() {
+        if (items == null || bundle.getTag() != tag || BundleContentsHeader.getRevision(bundle) != revision) {
+            contents = new BundleItemContents(bundle);
+            List<ItemStack> cachedItems = contents.getItems();
+            items = new ArrayList<>(cachedItems.size());
+            for (ItemStack item : cachedItems) {
+                items.add(item.copy());
+            }
+            update();
+        }
+        return items;
+    }
+
+    /**
+     * Commit the contents transaction,
+     * keeping it open for the next calls
+     */
+    private void commit() {
+        contents.commit();
+        contents.clearChanges();
+        update();
+    }
+
+    /**
+     * Remember the Bundle tag and revision
+     * the contents and the Item Stacks match
+     */
+    private void update() {
+        tag = bundle.getTag();
+        revision = contents.getRevision();
+    }
+}
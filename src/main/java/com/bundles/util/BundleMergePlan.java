@@ -0,0 +1,188 @@
+package com.bundles.util;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.inventory.container.ChestContainer;
+import net.minecraft.inventory.container.Container;
+import net.minecraft.inventory.container.DispenserContainer;
+import net.minecraft.inventory.container.HopperContainer;
+import net.minecraft.inventory.container.ShulkerBoxContainer;
+import net.minecraft.inventory.container.Slot;
+import net.minecraft.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Bundle Merge Plan.
+ * Places the Item Stacks taken out of a Bundle into the Slots
+ * of a Container. The Slots are scanned once when the plan is
+ * made: partial stacks are filled first, then empty Slots are
+ * used in Container order. The storage Slots of an open chest,
+ * barrel, Shulker Box, hopper or dispenser come before the Player
+ * inventory ones, so emptying a Bundle while a chest is open
+ * unloads it into the chest. Any other Container, like furnaces,
+ * anvils or crafting tables, only gets the Player inventory
+ *
+ * @author JimiIT92
+ */
+final class BundleMergePlan {
+
+    /**
+     * Player main inventory size, without armor and offhand
+     */
+    private static final int MAIN_INVENTORY_SIZE = 36;
+
+    /**
+     * Slots holding an Item Stack
+     */
+    private final List<Slot> partialSlots = new ArrayList<>();
+    /**
+     * Empty Slots, in the order they should be used
+     */
+    private final List<Slot> emptySlots = new ArrayList<>();
+    /**
+     * Numbers of the changed Slots, in the order they changed
+     */
+    private final IntArrayList changedSlots = new IntArrayList();
+    /**
+     * Numbers of the changed Slots
+     */
+    private final BitSet changed = new BitSet();
+    /**
+     * Container
+     */
+    private final Container container;
+
+    /**
+     * Constructor
+     *
+     * @param container Container
+     */
+    private BundleMergePlan(Container container) {
+        this.container = container;
+    }
+
+    /**
+     * Scan the Slots a Bundle can be emptied into
+     *
+     * @param container  Container
+     * @param inventory  Player inventory
+     * @param bundleSlot Slot holding the Bundle, or null if the Bundle is not inside a Slot
+     * @return Merge Plan
+     */
+    static BundleMergePlan of(Container container, PlayerInventory inventory, Slot bundleSlot) {
+        BundleMergePlan plan = new BundleMergePlan(container);
+        if (isStorageContainer(container)) {
+            for (Slot slot : container.inventorySlots) {
+                if (slot != bundleSlot && isContainerSlot(slot, inventory)) {
+                    plan.add(slot);
+                }
+            }
+        }
+        for (Slot slot : container.inventorySlots) {
+            if (slot != bundleSlot && slot.inventory == inventory && slot.getSlotIndex() < MAIN_INVENTORY_SIZE && slot.isEnabled()) {
+                plan.add(slot);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Put an Item Stack inside the Slots.
+     * The Item Stack is shrunk by the amount of Items placed
+     *
+     * @param stack Item Stack
+     */
+    void apply(ItemStack stack) {
+        for (Slot slot : partialSlots) {
+            ItemStack slotStack = slot.getStack();
+            int limit = Math.min(slot.getItemStackLimit(stack), slotStack.getMaxStackSize());
+            if (slotStack.getCount() < limit && BundleContents.canMerge(slotStack, stack) && slot.isItemValid(stack)) {
+                int moved = Math.min(stack.getCount(), limit - slotStack.getCount());
+                slotStack.grow(moved);
+                stack.shrink(moved);
+                slot.putStack(slotStack);
+                markChanged(slot);
+                if (stack.isEmpty()) {
+                    return;
+                }
+            }
+        }
+        for (int i = 0; i < emptySlots.size(); ) {
+            Slot slot = emptySlots.get(i);
+            if (!slot.isItemValid(stack)) {
+                i++;
+                continue;
+            }
+            slot.putStack(stack.split(Math.min(stack.getCount(), slot.getItemStackLimit(stack))));
+            markChanged(slot);
+            emptySlots.remove(i);
+            partialSlots.add(slot);
+            if (stack.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get the changed Slots
+     *
+     * @param slotIds    Filled with the Numbers of the changed Slots
+     * @param slotCounts Filled with the Item count inside each changed Slot
+     */
+    void getChangedSlots(IntArrayList slotIds, IntArrayList slotCounts) {
+        for (int i = 0; i < changedSlots.size(); i++) {
+            int slotNumber = changedSlots.getInt(i);
+            slotIds.add(slotNumber);
+            slotCounts.add(container.getSlot(slotNumber).getStack().getCount());
+        }
+    }
+
+    /**
+     * Add a Slot to the plan
+     *
+     * @param slot Slot
+     */
+    private void add(Slot slot) {
+        (slot.getHasStack() ? partialSlots : emptySlots).add(slot);
+    }
+
+    /**
+     * Remember a changed Slot
+     *
+     * @param slot Slot
+     */
+    private void markChanged(Slot slot) {
+        if (!changed.get(slot.slotNumber)) {
+            changed.set(slot.slotNumber);
+            changedSlots.add(slot.slotNumber);
+        }
+    }
+
+    /**
+     * Check if a Container only holds plain storage Slots
+     * besides the Player inventory ones
+     *
+     * @param container Container
+     * @return True if the Container is a chest, barrel, Shulker Box, hopper or dispenser, False otherwise
+     */
+    private static boolean isStorageContainer(Container container) {
+        return container instanceof ChestContainer
+            || container instanceof ShulkerBoxContainer
+            || container instanceof HopperContainer
+            || container instanceof DispenserContainer;
+    }
+
+    /**
+     * Check if a Slot belongs to the open Container storage
+     *
+     * @param slot      Slot
+     * @param inventory Player inventory
+     * @return True if the Bundle can be emptied into the Slot, False otherwise
+     */
+    private static boolean isContainerSlot(Slot slot, PlayerInventory inventory) {
+        return slot.inventory != inventory && slot.isEnabled();
+    }
+}
@@ -0,0 +1,170 @@
+package com.bundles.util;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.ListNBT;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.util.Objects;
+
+/**
+ * Bundle NBT Reader.
+ * Answers questions about Bundle contents straight from
+ * the Item Stack entries NBT, without creating Item Stacks
+ *
+ * @author JimiIT92
+ */
+public final class BundleNBTReader {
+
+    /**
+     * Shulker Box Slots
+     */
+    private static final int SHULKER_BOX_SLOTS = 27;
+    /**
+     * Mask with a bit set for every Shulker Box slot
+     */
+    private static final int SHULKER_BOX_SLOTS_MASK = (1 << SHULKER_BOX_SLOTS) - 1;
+
+    /**
+     * Get the Item of an entry.
+     * The id is looked up in the registry every time,
+     * so unknown ids read from Item Stacks are never kept
+     *
+     * @param entry Item Stack entry NBT
+     * @return Entry Item, Air if the Item doesn't exist
+     */
+    public static Item getItem(CompoundNBT entry) {
+        return findItem(entry.getString("id"));
+    }
+
+    /**
+     * Get the Item count of an entry
+     *
+     * @param entry Item Stack entry NBT
+     * @return Entry Item count
+     */
+    public static int getCount(CompoundNBT entry) {
+        return entry.getByte("Count");
+    }
+
+    /**
+     * Check if an entry is empty
+     *
+     * @param entry Item Stack entry NBT
+     * @return True if the entry holds no Item, False otherwise
+     */
+    public static boolean isEmpty(CompoundNBT entry) {
+        return getCount(entry) <= 0 || getItem(entry) == Items.AIR;
+    }
+
+    /**
+     * Get the max stack size of the Item of an entry
+     *
+     * @param entry Item Stack entry NBT
+     * @return Entry Item max stack size
+     */
+    public static int getMaxStackSize(CompoundNBT entry) {
+        Item item = getItem(entry);
+        return item == Items.AIR ? getCount(entry) : item.getMaxStackSize();
+    }
+
+    /**
+     * Check if an Item Stack has the same Item and tags of an entry
+     *
+     * @param entry Item Stack entry NBT
+     * @param stack Item Stack
+     * @return True if the Item Stack can be merged with the entry, False otherwise
+     */
+    public static boolean matches(CompoundNBT entry, ItemStack stack) {
+        if (stack.isEmpty() || getItem(entry) != stack.getItem()) {
+            return false;
+        }
+        if (entry.contains("ForgeCaps")) {
+            return ItemStack.areItemStackTagsEqual(ItemStack.read(entry), stack);
+        }
+        return Objects.equals(entry.get("tag"), stack.getTag());
+    }
+
+    /**
+     * Get how many Items are inside a Shulker Box
+     *
+     * @param items Shulker Box Items List NBT
+     * @return Shulker Box Items Count
+     */
+    public static int getShulkerBoxItemsCount(ListNBT items) {
+        int count = 0;
+        for (int i = 0; i < items.size(); i++) {
+            CompoundNBT entry = items.getCompound(i);
+            if (isShulkerBoxSlot(entry) && !isEmpty(entry)) {
+                count += getCount(entry);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Check if a Shulker Box is full
+     *
+     * @param items Shulker Box Items List NBT
+     * @return True if every Shulker Box slot holds a full stack, False otherwise
+     */
+    public static boolean isShulkerBoxFull(ListNBT items) {
+        int occupiedSlots = 0;
+        for (int i = 0; i < items.size(); i++) {
+            CompoundNBT entry = items.getCompound(i);
+            if (isShulkerBoxSlot(entry) && !isEmpty(entry)) {
+                if (getCount(entry) < getMaxStackSize(entry)) {
+                    return false;
+                }
+                occupiedSlots |= 1 << (entry.getByte("Slot") & 255);
+            }
+        }
+        return occupiedSlots == SHULKER_BOX_SLOTS_MASK;
+    }
+
+    /**
+     * Check if an Item Stack can be added to a Shulker Box
+     *
+     * @param items Shulker Box Items List NBT
+     * @param stack Item Stack to add
+     * @return True if there's a free slot or a partial stack of the same Item, False otherwise
+     */
+    public static boolean canAddToShulkerBox(ListNBT items, ItemStack stack) {
+        int occupiedSlots = 0;
+        for (int i = 0; i < items.size(); i++) {
+            CompoundNBT entry = items.getCompound(i);
+            if (isShulkerBoxSlot(entry) && !isEmpty(entry)) {
+                if (getCount(entry) < stack.getMaxStackSize() && matches(entry, stack)) {
+                    return true;
+                }
+                occupiedSlots |= 1 << (entry.getByte("Slot") & 255);
+            }
+        }
+        return occupiedSlots != SHULKER_BOX_SLOTS_MASK;
+    }
+
+    /**
+     * Check if an entry is inside the Shulker Box slots range
+     *
+     * @param entry Item Stack entry NBT
+     * @return True if the entry slot is a Shulker Box slot, False otherwise
+     */
+    private static boolean isShulkerBoxSlot(CompoundNBT entry) {
+        return (entry.getByte("Slot") & 255) < SHULKER_BOX_SLOTS;
+    }
+
+    /**
+     * Find an Item from its id
+     *
+     * @param id Item id
+     * @return Item or Air if not found
+     */
+    private static Item findItem(String id) {
+        ResourceLocation resourceLocation = ResourceLocation.tryCreate(id);
+        Item item = resourceLocation == null ? null : ForgeRegistries.ITEMS.getValue(resourceLocation);
+        return item == null ? Items.AIR : item;
+    }
+}
@@ -0,0 +1,205 @@
+package com.bundles.util;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.ItemRenderer;
+import net.minecraft.client.renderer.model.IBakedModel;
+import net.minecraft.client.renderer.model.ItemOverrideList;
+import net.minecraft.item.ItemStack;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Bundle Tooltip Layout
+ * Holds which Bundle Item Stack is drawn at each
+ * Tooltip position and its offset, packed as
+ * (entry index, x offset, y offset) triples.
+ * The layout only depends on the Bundle contents,
+ * so the same contents always get the same layout.
+ * A layout belongs to the decoded Item Stacks it has
+ * been built from, which are replaced whenever the
+ * Bundle contents change
+ *
+ * @author JimiIT92
+ */
+public final class BundleTooltipLayout {
+
+    /**
+     * Max Items drawn inside a Tooltip
+     */
+    public static final int MAX_SHOWN_ITEMS = 64;
+
+    /**
+     * Id of the next layout
+     */
+    private static int nextId;
+
+    /**
+     * Layout Id, never reused
+     */
+    private final int id;
+    /**
+     * Bundle Item Stacks the layout was built for
+     */
+    private final List<ItemStack> bundleItems;
+    /**
+     * Items count the layout was built for
+     */
+    private final int itemsCount;
+    /**
+     * Packed (entry index, x offset, y offset) of each shown Item
+     */
+    private final int[] positions;
+    /**
+     * Baked Models of the Bundle Item Stacks, looked up when first drawn
+     */
+    private final IBakedModel[] models;
+
+    /**
+     * Constructor
+     *
+     * @param bundleItems Bundle Item Stacks
+     * @param itemsCount  Items count
+     * @param positions   Packed positions
+     */
+    private BundleTooltipLayout(List<ItemStack> bundleItems, int itemsCount, int[] positions) {
+        this.id = nextId++;
+        this.bundleItems = bundleItems;
+        this.itemsCount = itemsCount;
+        this.positions = positions;
+        this.models = new IBakedModel[bundleItems.size()];
+    }
+
+    /**
+     * Build the Tooltip layout for the Bundle Item Stacks.
+     * Every Item is shuffled, then only the shown ones are kept
+     *
+     * @param bundleItems Bundle Item Stacks
+     * @param seed        Seed, derived from the Bundle contents
+     * @return Bundle Tooltip Layout
+     */
+    public static BundleTooltipLayout create(List<ItemStack> bundleItems, long seed) {
+        int itemsCount = countItems(bundleItems);
+        int[] items = new int[itemsCount];
+        int item = 0;
+        for (int i = 0; i < bundleItems.size(); i++) {
+            for (int count = bundleItems.get(i).getCount(); count > 0; count--) {
+                items[item++] = i;
+            }
+        }
+        Random random = new Random(seed);
+        int shownCount = Math.min(itemsCount, MAX_SHOWN_ITEMS);
+        int[] positions = new int[shownCount * 3];
+        for (int i = 0; i < shownCount; i++) {
+            int swap = i + random.nextInt(itemsCount - i);
+            int entry = items[swap];
+            items[swap] = items[i];
+            positions[i * 3] = entry;
+            positions[i * 3 + 1] = random.nextInt(4);
+            positions[i * 3 + 2] = random.nextInt(4);
+        }
+        return new BundleTooltipLayout(bundleItems, itemsCount, positions);
+    }
+
+    /**
+     * Check if the layout has been built for the Bundle Item Stacks
+     *
+     * @param bundleItems Bundle Item Stacks
+     * @return True if the layout can be used for the Bundle Item Stacks, False otherwise
+     */
+    public boolean isFor(List<ItemStack> bundleItems) {
+        return bundleItems == this.bundleItems;
+    }
+
+    /**
+     * Get the layout Id
+     *
+     * @return Layout Id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Get how many Items are inside the Bundle
+     *
+     * @return Items count
+     */
+    public int getItemsCount() {
+        return itemsCount;
+    }
+
+    /**
+     * Get how many Items are drawn
+     *
+     * @return Shown Items count
+     */
+    public int getShownCount() {
+        return positions.length / 3;
+    }
+
+    /**
+     * Get the Bundle Item Stack index of a shown Item
+     *
+     * @param index Shown Item index
+     * @return Bundle Item Stack index
+     */
+    public int getEntryIndex(int index) {
+        return positions[index * 3];
+    }
+
+    /**
+     * Get the x offset of a shown Item
+     *
+     * @param index Shown Item index
+     * @return X offset
+     */
+    public int getX(int index) {
+        return positions[index * 3 + 1];
+    }
+
+    /**
+     * Get the y offset of a shown Item
+     *
+     * @param index Shown Item index
+     * @return Y offset
+     */
+    public int getY(int index) {
+        return positions[index * 3 + 2];
+    }
+
+    /**
+     * Get the Baked Model of a Bundle Item Stack.
+     * Models with overrides, like the Clock one,
+     * can change every frame and are never kept
+     *
+     * @param entryIndex Bundle Item Stack index
+     * @param bundleItem Bundle Item Stack
+     * @return Baked Model
+     */
+    public IBakedModel getModel(int entryIndex, ItemStack bundleItem) {
+        IBakedModel model = models[entryIndex];
+        if (model == null) {
+            ItemRenderer itemRenderer = Minecraft.getInstance().getItemRenderer();
+            model = itemRenderer.getItemModelWithOverrides(bundleItem, null, null);
+            if (itemRenderer.getItemModelMesher().getItemModel(bundleItem).getOverrides() == ItemOverrideList.EMPTY) {
+                models[entryIndex] = model;
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Count the Items inside the Bundle Item Stacks
+     *
+     * @param bundleItems Bundle Item Stacks
+     * @return Items count
+     */
+    private static int countItems(List<ItemStack> bundleItems) {
+        int itemsCount = 0;
+        for (int i = 0; i < bundleItems.size(); i++) {
+            itemsCount += bundleItems.get(i).getCount();
+        }
+        return itemsCount;
+    }
+}
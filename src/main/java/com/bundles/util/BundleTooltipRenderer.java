@@ -0,0 +1,121 @@
+package com.bundles.util;
+
+import com.bundles.profiling.BundleFrameStats;
+import com.mojang.blaze3d.matrix.MatrixStack;
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.IRenderTypeBuffer;
+import net.minecraft.client.renderer.ItemRenderer;
+import net.minecraft.client.renderer.RenderHelper;
+import net.minecraft.client.renderer.model.IBakedModel;
+import net.minecraft.client.renderer.model.ItemCameraTransforms;
+import net.minecraft.client.renderer.texture.AtlasTexture;
+import net.minecraft.client.renderer.texture.OverlayTexture;
+import net.minecraft.client.renderer.texture.Texture;
+import net.minecraft.item.ItemStack;
+
+import java.util.List;
+
+/**
+ * Bundle Tooltip Renderer
+ * Draws the Items of a Bundle Tooltip in a single batch.
+ * The render state is set once, every Item is written to
+ * the same buffer and the buffer is flushed once for the
+ * side lit models and once for the flat ones
+ *
+ * @author JimiIT92
+ */
+public final class BundleTooltipRenderer {
+
+    /**
+     * Full bright light
+     */
+    private static final int FULL_BRIGHT = 15728880;
+    /**
+     * Matrix Stack reused for every Item
+     */
+    private static final MatrixStack MATRIX_STACK = new MatrixStack();
+
+    /**
+     * Draw the Bundle Items
+     *
+     * @param bundleItems Bundle Item Stacks
+     * @param layout      Tooltip Layout
+     * @param rows        Rows to draw
+     * @param x           Items X position
+     * @param y           Items Y position
+     * @param z           Items Z position
+     */
+    public static void renderItems(List<ItemStack> bundleItems, BundleTooltipLayout layout, int rows, int x, int y, float z) {
+        Minecraft minecraft = Minecraft.getInstance();
+        minecraft.textureManager.bindTexture(AtlasTexture.LOCATION_BLOCKS_TEXTURE);
+        Texture atlas = minecraft.textureManager.getTexture(AtlasTexture.LOCATION_BLOCKS_TEXTURE);
+        if (atlas != null) {
+            atlas.setBlurMipmapDirect(false, false);
+        }
+        RenderSystem.enableRescaleNormal();
+        RenderSystem.enableAlphaTest();
+        RenderSystem.defaultAlphaFunc();
+        RenderSystem.enableBlend();
+        RenderSystem.blendFunc(GlStateManager.SourceFactor.SRC_ALPHA, GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA);
+        RenderSystem.color4f(1.0F, 1.0F, 1.0F, 1.0F);
+        IRenderTypeBuffer.Impl buffer = minecraft.getRenderTypeBuffers().getBufferSource();
+
+        boolean hasFlatItems = renderItems(bundleItems, layout, rows, x, y, z, true, buffer);
+        buffer.finish();
+        if (hasFlatItems) {
+            RenderHelper.setupGuiFlatDiffuseLighting();
+            renderItems(bundleItems, layout, rows, x, y, z, false, buffer);
+            buffer.finish();
+            RenderHelper.setupGui3DDiffuseLighting();
+        }
+
+        RenderSystem.enableDepthTest();
+        RenderSystem.disableAlphaTest();
+        RenderSystem.disableRescaleNormal();
+    }
+
+    /**
+     * Write the Bundle Items with the same lighting to the buffer
+     *
+     * @param bundleItems Bundle Item Stacks
+     * @param layout      Tooltip Layout
+     * @param rows        Rows to draw
+     * @param x           Items X position
+     * @param y           Items Y position
+     * @param z           Items Z position
+     * @param sideLit     If the side lit or the flat Items should be written
+     * @param buffer      Render Type Buffer
+     * @return True if some Items have been skipped because of their lighting, False otherwise
+     */
+    private static boolean renderItems(List<ItemStack> bundleItems, BundleTooltipLayout layout, int rows, int x, int y, float z,
+                                       boolean sideLit, IRenderTypeBuffer buffer) {
+        ItemRenderer itemRenderer = Minecraft.getInstance().getItemRenderer();
+        int shownCount = layout.getShownCount();
+        boolean skipped = false;
+        int drawn = 0;
+        for (int r = 0; r < rows; r++) {
+            int rowEnd = Math.min(shownCount, ((r + 1) * 16) - 1);
+            for (int index = r * 16; index < rowEnd; index++) {
+                int entryIndex = layout.getEntryIndex(index);
+                ItemStack bundleItem = bundleItems.get(entryIndex);
+                IBakedModel model = layout.getModel(entryIndex, bundleItem);
+                if (model.isSideLit() != sideLit) {
+                    skipped = true;
+                    continue;
+                }
+                int i = index - r * 16;
+                MATRIX_STACK.push();
+                MATRIX_STACK.translate(x + (8 * i) + layout.getX(index) + 8.0F, y + (8 * r) + layout.getY(index) + 8.0F, 100.0F + z);
+                MATRIX_STACK.scale(1.0F, -1.0F, 1.0F);
+                MATRIX_STACK.scale(8.0F, 8.0F, 8.0F);
+                itemRenderer.renderItem(bundleItem, ItemCameraTransforms.TransformType.GUI, false, MATRIX_STACK, buffer, FULL_BRIGHT, OverlayTexture.NO_OVERLAY, model);
+                MATRIX_STACK.pop();
+                drawn++;
+            }
+        }
+        BundleFrameStats.countIconsDrawn(drawn);
+        return skipped;
+    }
+}
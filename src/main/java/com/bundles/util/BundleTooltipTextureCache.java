@@ -0,0 +1,267 @@
+package com.bundles.util;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import net.minecraft.client.MainWindow;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.BufferBuilder;
+import net.minecraft.client.renderer.ItemRenderer;
+import net.minecraft.client.renderer.WorldVertexBufferUploader;
+import net.minecraft.client.renderer.model.BakedQuad;
+import net.minecraft.client.renderer.model.IBakedModel;
+import net.minecraft.client.renderer.model.ItemOverrideList;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.client.shader.Framebuffer;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.Direction;
+import org.lwjgl.opengl.GL11;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Bundle Tooltip Texture Cache
+ * Holds the Items grid of the recently hovered Bundles
+ * rendered to offscreen textures, by layout and GUI scale,
+ * so the grid is drawn as a single quad while hovering.
+ * Bundles holding enchanted Items, Items with animated
+ * textures or Items whose model changes with overrides,
+ * like Clocks and Compasses, are never cached
+ *
+ * @author JimiIT92
+ */
+public final class BundleTooltipTextureCache {
+
+    /**
+     * Grid width, in GUI units
+     */
+    private static final int GRID_WIDTH = 128;
+    /**
+     * Max memory used by the cached textures, in bytes
+     */
+    private static final long MAX_BYTES = 16L * 1024L * 1024L;
+    /**
+     * Max cached textures
+     */
+    private static final int MAX_TEXTURES = 64;
+    /**
+     * Quad faces of a model, null being the unculled quads
+     */
+    private static final Direction[] DIRECTIONS = {null, Direction.DOWN, Direction.UP, Direction.NORTH, Direction.SOUTH, Direction.WEST, Direction.EAST};
+    /**
+     * Random used to read the model quads
+     */
+    private static final Random RANDOM = new Random();
+
+    /**
+     * Cached textures, by layout Id and GUI scale,
+     * from the least to the most recently used
+     */
+    private static final Long2ObjectLinkedOpenHashMap<Texture> TEXTURES = new Long2ObjectLinkedOpenHashMap<>();
+    /**
+     * Buffer the cached textures are drawn with
+     */
+    private static final BufferBuilder BUFFER = new BufferBuilder(256);
+    /**
+     * Memory used by the cached textures, in bytes
+     */
+    private static long usedBytes;
+    /**
+     * Window width the textures have been rendered for
+     */
+    private static int windowWidth;
+    /**
+     * Window height the textures have been rendered for
+     */
+    private static int windowHeight;
+
+    /**
+     * Items grid rendered to an offscreen texture
+     */
+    private static final class Texture {
+
+        /**
+         * Framebuffer holding the texture, null if the Items can't be cached
+         */
+        private final Framebuffer framebuffer;
+        /**
+         * Texture height, in GUI units
+         */
+        private final int height;
+        /**
+         * Memory used by the texture, in bytes
+         */
+        private final long bytes;
+
+        /**
+         * Constructor
+         *
+         * @param framebuffer Framebuffer
+         * @param height      Texture height
+         * @param bytes       Memory used
+         */
+        private Texture(Framebuffer framebuffer, int height, long bytes) {
+            this.framebuffer = framebuffer;
+            this.height = height;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Draw the Bundle Items from the cached texture,
+     * rendering the texture first if needed
+     *
+     * @param bundleItems Bundle Item Stacks
+     * @param layout      Tooltip Layout
+     * @param rows        Rows to draw
+     * @param x           Items X position
+     * @param y           Items Y position
+     * @param z           Items Z position
+     * @return True if the Items have been drawn, False if they can't be cached
+     */
+    public static boolean draw(List<ItemStack> bundleItems, BundleTooltipLayout layout, int rows, int x, int y, float z) {
+        Minecraft minecraft = Minecraft.getInstance();
+        MainWindow window = minecraft.getMainWindow();
+        if (window.getFramebufferWidth() != windowWidth || window.getFramebufferHeight() != windowHeight) {
+            clear();
+            windowWidth = window.getFramebufferWidth();
+            windowHeight = window.getFramebufferHeight();
+        }
+        double scale = window.getGuiScaleFactor();
+        long key = ((long) layout.getId() << 32) | (int) scale;
+        Texture texture = TEXTURES.getAndMoveToLast(key);
+        if (texture == null) {
+            texture = render(bundleItems, layout, rows, scale);
+            TEXTURES.putAndMoveToLast(key, texture);
+            usedBytes += texture.bytes;
+            while ((usedBytes > MAX_BYTES && TEXTURES.size() > 1) || TEXTURES.size() > MAX_TEXTURES) {
+                release(TEXTURES.removeFirst());
+            }
+        }
+        if (texture.framebuffer == null) {
+            return false;
+        }
+        drawTexture(texture, x, y, z);
+        return true;
+    }
+
+    /**
+     * Release every cached texture.
+     * Called when the resources are reloaded
+     * and when the window is resized
+     */
+    public static void clear() {
+        while (!TEXTURES.isEmpty()) {
+            release(TEXTURES.removeFirst());
+        }
+    }
+
+    /**
+     * Render the Bundle Items to a new texture
+     *
+     * @param bundleItems Bundle Item Stacks
+     * @param layout      Tooltip Layout
+     * @param rows        Rows to draw
+     * @param scale       GUI scale
+     * @return Texture
+     */
+    private static Texture render(List<ItemStack> bundleItems, BundleTooltipLayout layout, int rows, double scale) {
+        Minecraft minecraft = Minecraft.getInstance();
+        for (int i = 0; i < bundleItems.size(); i++) {
+            if (!isStatic(bundleItems.get(i), minecraft.getItemRenderer())) {
+                return new Texture(null, 0, 0);
+            }
+        }
+        int height = 8 * rows + 8;
+        int framebufferWidth = (int) Math.ceil(GRID_WIDTH * scale);
+        int framebufferHeight = (int) Math.ceil(height * scale);
+        Framebuffer framebuffer = new Framebuffer(framebufferWidth, framebufferHeight, true, Minecraft.IS_RUNNING_ON_MAC);
+        framebuffer.setFramebufferColor(0.0F, 0.0F, 0.0F, 0.0F);
+        framebuffer.framebufferClear(Minecraft.IS_RUNNING_ON_MAC);
+        framebuffer.bindFramebuffer(true);
+
+        RenderSystem.matrixMode(GL11.GL_PROJECTION);
+        RenderSystem.pushMatrix();
+        RenderSystem.loadIdentity();
+        RenderSystem.ortho(0.0D, GRID_WIDTH, height, 0.0D, 1000.0D, 3000.0D);
+        RenderSystem.matrixMode(GL11.GL_MODELVIEW);
+        RenderSystem.pushMatrix();
+        RenderSystem.loadIdentity();
+        RenderSystem.translatef(0.0F, 0.0F, -2000.0F);
+        BundleTooltipRenderer.renderItems(bundleItems, layout, rows, 0, 0, 0.0F);
+        RenderSystem.popMatrix();
+        RenderSystem.matrixMode(GL11.GL_PROJECTION);
+        RenderSystem.popMatrix();
+        RenderSystem.matrixMode(GL11.GL_MODELVIEW);
+
+        minecraft.getFramebuffer().bindFramebuffer(true);
+        return new Texture(framebuffer, height, 8L * framebufferWidth * framebufferHeight);
+    }
+
+    /**
+     * Check if an Item Stack always looks the same,
+     * so it can be drawn once into a cached texture
+     *
+     * @param stack        Item Stack
+     * @param itemRenderer Item Renderer
+     * @return True if the Item Stack is not enchanted, has no model overrides and no animated sprites, False otherwise
+     */
+    private static boolean isStatic(ItemStack stack, ItemRenderer itemRenderer) {
+        if (stack.hasEffect()) {
+            return false;
+        }
+        IBakedModel model = itemRenderer.getItemModelMesher().getItemModel(stack);
+        if (model.getOverrides() != ItemOverrideList.EMPTY) {
+            return false;
+        }
+        for (Direction direction : DIRECTIONS) {
+            for (BakedQuad quad : model.getQuads(null, direction, RANDOM)) {
+                if (quad.getSprite().getFrameCount() > 1) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Draw a cached texture as a single quad
+     *
+     * @param texture Texture
+     * @param x       X position
+     * @param y       Y position
+     * @param z       Z position
+     */
+    private static void drawTexture(Texture texture, int x, int y, float z) {
+        texture.framebuffer.bindFramebufferTexture();
+        RenderSystem.enableTexture();
+        RenderSystem.enableBlend();
+        RenderSystem.defaultBlendFunc();
+        RenderSystem.color4f(1.0F, 1.0F, 1.0F, 1.0F);
+        float top = y;
+        float bottom = y + texture.height;
+        float left = x;
+        float right = x + GRID_WIDTH;
+        float depth = 100.0F + z;
+        BUFFER.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_TEX);
+        BUFFER.pos(left, bottom, depth).tex(0.0F, 0.0F).endVertex();
+        BUFFER.pos(right, bottom, depth).tex(1.0F, 0.0F).endVertex();
+        BUFFER.pos(right, top, depth).tex(1.0F, 1.0F).endVertex();
+        BUFFER.pos(left, top, depth).tex(0.0F, 1.0F).endVertex();
+        BUFFER.finishDrawing();
+        WorldVertexBufferUploader.draw(BUFFER);
+        texture.framebuffer.unbindFramebufferTexture();
+    }
+
+    /**
+     * Release a cached texture
+     *
+     * @param texture Texture
+     */
+    private static void release(Texture texture) {
+        usedBytes -= texture.bytes;
+        if (texture.framebuffer != null) {
+            texture.framebuffer.deleteFramebuffer();
+        }
+    }
+}
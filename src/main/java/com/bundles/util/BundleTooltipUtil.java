@@ -1,23 +1,17 @@
 package com.bundles.util;
 
+import com.bundles.profiling.BundleFlightRecorder;
+import com.bundles.profiling.BundleFrameStats;
 import com.mojang.blaze3d.matrix.MatrixStack;
-import com.mojang.blaze3d.platform.GlStateManager;
 import com.mojang.blaze3d.systems.RenderSystem;
-import net.minecraft.client.Minecraft;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectLinkedOpenHashMap;
 import net.minecraft.client.gui.FontRenderer;
 import net.minecraft.client.renderer.IRenderTypeBuffer;
-import net.minecraft.client.renderer.ItemRenderer;
-import net.minecraft.client.renderer.RenderHelper;
 import net.minecraft.client.renderer.Tessellator;
-import net.minecraft.client.renderer.model.IBakedModel;
-import net.minecraft.client.renderer.model.ItemCameraTransforms;
-import net.minecraft.client.renderer.texture.AtlasTexture;
-import net.minecraft.client.renderer.texture.OverlayTexture;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.math.vector.Matrix4f;
 import net.minecraft.util.text.ITextProperties;
 import net.minecraft.util.text.LanguageMap;
-import net.minecraft.util.text.StringTextComponent;
 import net.minecraft.util.text.Style;
 import net.minecraftforge.client.event.RenderTooltipEvent;
 import net.minecraftforge.common.MinecraftForge;
@@ -33,17 +27,15 @@ import java.util.*;
 public class BundleTooltipUtil {
 
     /**
-     * Cached Bundle Item Stacks
+     * Max Tooltip Layouts kept in cache,
+     * enough for a whole chest of Bundles
      */
-    private static List<ItemStack> CACHED_ITEM_STACKS;
+    private static final int MAX_CACHED_LAYOUTS = 64;
     /**
-     * Cached Tooltip Item Stacks
+     * Cached Tooltip Layouts, by decoded Bundle Item Stacks,
+     * from the least to the most recently used
      */
-    private static List<ItemStack> CACHED_TOOLTIP_ITEM_STACKS;
-    /**
-     * Cache Tooltip Item Stacks Positions
-     */
-    private static HashMap<ItemStack, Map.Entry<Integer, Integer>> CACHED_TOOLTIP_POSITIONS;
+    private static final Reference2ObjectLinkedOpenHashMap<List<ItemStack>, BundleTooltipLayout> CACHED_LAYOUTS = new Reference2ObjectLinkedOpenHashMap<>();
 
     /**
      * Draw the Bundle Tooltip
@@ -52,6 +44,7 @@ public class BundleTooltipUtil {
      */
     public static void drawBundleTooltip(final RenderTooltipEvent.Pre event)
     {
+        long startTime = BundleFrameStats.start();
         final ItemStack stack = event.getStack();
         MatrixStack mStack = event.getMatrixStack();
         List<? extends ITextProperties> textLines = event.getLines();
@@ -64,36 +57,12 @@ public class BundleTooltipUtil {
         int backgroundColor = GuiUtils.DEFAULT_BACKGROUND_COLOR;
         int borderColorStart = GuiUtils.DEFAULT_BORDER_COLOR_START;
         int borderColorEnd = GuiUtils.DEFAULT_BORDER_COLOR_END;
-        List<ItemStack> bundleItems = BundleItemUtils.getItemsFromBundle(stack);
-        boolean useCached = CACHED_ITEM_STACKS != null && bundleItems.size() == CACHED_ITEM_STACKS.size();
-        if(useCached) {
-            for (int i = 0; i < bundleItems.size(); i++) {
-                if(!ItemStack.areItemStacksEqual(bundleItems.get(i), CACHED_ITEM_STACKS.get(i))) {
-                    useCached = false;
-                    break;
-                }
-            }
-        }
-        if(!useCached) {
-            CACHED_ITEM_STACKS = bundleItems;
-            CACHED_TOOLTIP_POSITIONS = new HashMap<>();
-            List<ItemStack> tooltipItems = new ArrayList<>();
-            Random random = new Random();
-            bundleItems.forEach(x -> {
-                for (int i = 0; i < x.getCount(); i++) {
-                    ItemStack tooltipStack = x.copy();
-                    tooltipStack.setCount(1);
-                    tooltipStack.setDisplayName(new StringTextComponent("stack_" + i));
-                    tooltipItems.add(tooltipStack);
-                    CACHED_TOOLTIP_POSITIONS.put(tooltipStack,
-                            new AbstractMap.SimpleEntry<>(random.nextInt(4) , random.nextInt(4)));
-                }
-            });
-            Collections.shuffle(tooltipItems);
-            CACHED_TOOLTIP_ITEM_STACKS = tooltipItems;
-        }
+        BundleContents contents = BundleContents.of(stack);
+        List<ItemStack> bundleItems = contents.getItems();
+        BundleTooltipLayout layout = getLayout(contents, bundleItems);
+        int itemsCount = layout.getItemsCount();
 
-        int rows = Math.min((CACHED_TOOLTIP_ITEM_STACKS.size() / 16) + 1, 4);
+        int rows = Math.min((itemsCount / 16) + 1, 4);
 
         if (!textLines.isEmpty())
         {
@@ -169,8 +138,8 @@ public class BundleTooltipUtil {
                     tooltipHeight += 2;
             }
 
-            if(!CACHED_TOOLTIP_ITEM_STACKS.isEmpty()) {
-                tooltipTextWidth += (rows == 1 && CACHED_TOOLTIP_ITEM_STACKS.size() <= 9 ? 0 : 16) * 3;
+            if(itemsCount > 0) {
+                tooltipTextWidth += (rows == 1 && itemsCount <= 9 ? 0 : 16) * 3;
                 tooltipHeight += rows * 8;
             }
 
@@ -219,17 +188,9 @@ public class BundleTooltipUtil {
             tooltipX -= 4;
             tooltipY -= 5;
 
-            float prevZLevel = Minecraft.getInstance().getItemRenderer().zLevel;
-            Minecraft.getInstance().getItemRenderer().zLevel = zLevel + 1;
-            for (int r = 0; r < rows; r++) {
-                List<ItemStack> rowItemStacks = CACHED_TOOLTIP_ITEM_STACKS.subList(r * 16, Math.min(CACHED_TOOLTIP_ITEM_STACKS.size(), ((r + 1) * 16) - 1));
-                for (int i = 0; i < rowItemStacks.size(); i++) {
-                    ItemStack bundleItem = rowItemStacks.get(i);
-                    Map.Entry<Integer, Integer> position = CACHED_TOOLTIP_POSITIONS.get(bundleItem);
-                    renderItemModelIntoGUI(bundleItem, tooltipX + (8 * (i % 16)) + position.getKey(), tooltipY + (8 * r) + position.getValue());
-                }
+            if (!BundleTooltipTextureCache.draw(bundleItems, layout, rows, tooltipX, tooltipY, zLevel + 1)) {
+                BundleTooltipRenderer.renderItems(bundleItems, layout, rows, tooltipX, tooltipY, zLevel + 1);
             }
-            Minecraft.getInstance().getItemRenderer().zLevel = prevZLevel;
 
             renderType.finish();
             mStack.pop();
@@ -239,47 +200,42 @@ public class BundleTooltipUtil {
             RenderSystem.enableDepthTest();
             RenderSystem.enableRescaleNormal();
         }
+        BundleFrameStats.stop(startTime);
     }
 
     /**
-     * Render Bundle Items
-     *
-     * @param stack Item Stack
-     * @param x Tooltip X position
-     * @param y Tooltip Y position
+     * Drop the cached Tooltip Layouts, along with
+     * the Baked Models and textures they are drawn with.
+     * Called when the resources are reloaded
      */
-    private static void renderItemModelIntoGUI(ItemStack stack, int x, int y) {
-        ItemRenderer itemRenderer = Minecraft.getInstance().getItemRenderer();
-        IBakedModel bakedmodel = itemRenderer.getItemModelWithOverrides(stack,null, null);
-        RenderSystem.pushMatrix();
-        Minecraft.getInstance().textureManager.bindTexture(AtlasTexture.LOCATION_BLOCKS_TEXTURE);
-        Objects.requireNonNull(Minecraft.getInstance().textureManager.getTexture(AtlasTexture.LOCATION_BLOCKS_TEXTURE)).setBlurMipmapDirect(false, false);
-        RenderSystem.enableRescaleNormal();
-        RenderSystem.enableAlphaTest();
-        RenderSystem.defaultAlphaFunc();
-        RenderSystem.enableBlend();
-        RenderSystem.blendFunc(GlStateManager.SourceFactor.SRC_ALPHA, GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA);
-        RenderSystem.color4f(1.0F, 1.0F, 1.0F, 1.0F);
-        RenderSystem.translatef((float)x, (float)y, 100.0F + itemRenderer.zLevel);
-        RenderSystem.translatef(8.0F, 8.0F, 0.0F);
-        RenderSystem.scalef(1.0F, -1.0F, 1.0F);
-        RenderSystem.scalef(8.0F, 8.0F, 8.0F);
-        MatrixStack matrixstack = new MatrixStack();
-        IRenderTypeBuffer.Impl irendertypebuffer$impl = Minecraft.getInstance().getRenderTypeBuffers().getBufferSource();
-        boolean flag = !bakedmodel.isSideLit();
-        if (flag) {
-            RenderHelper.setupGuiFlatDiffuseLighting();
-        }
+    public static void clearCache() {
+        CACHED_LAYOUTS.clear();
+        BundleTooltipTextureCache.clear();
+    }
 
-        itemRenderer.renderItem(stack, ItemCameraTransforms.TransformType.GUI, false, matrixstack, irendertypebuffer$impl, 15728880, OverlayTexture.NO_OVERLAY, bakedmodel);
-        irendertypebuffer$impl.finish();
-        RenderSystem.enableDepthTest();
-        if (flag) {
-            RenderHelper.setupGui3DDiffuseLighting();
+    /**
+     * Get the Tooltip Layout for the Bundle contents,
+     * building it only if it isn't cached yet.
+     * The decoded Item Stacks are replaced whenever the
+     * contents change, so they are used as the key and the
+     * contents hash is only computed to seed a new layout
+     *
+     * @param contents    Bundle Contents
+     * @param bundleItems Bundle Item Stacks
+     * @return Bundle Tooltip Layout
+     */
+    private static BundleTooltipLayout getLayout(BundleContents contents, List<ItemStack> bundleItems) {
+        BundleTooltipLayout layout = CACHED_LAYOUTS.getAndMoveToLast(bundleItems);
+        if (layout == null) {
+            Object event = BundleFlightRecorder.beginTooltipLayout();
+            layout = BundleTooltipLayout.create(bundleItems, contents.getContentsHash());
+            BundleFlightRecorder.endTooltipLayout(event, bundleItems.size(), layout.getItemsCount());
+            BundleFrameStats.countTooltipRebuild();
+            CACHED_LAYOUTS.putAndMoveToLast(bundleItems, layout);
+            if (CACHED_LAYOUTS.size() > MAX_CACHED_LAYOUTS) {
+                CACHED_LAYOUTS.removeFirst();
+            }
         }
-
-        RenderSystem.disableAlphaTest();
-        RenderSystem.disableRescaleNormal();
-        RenderSystem.popMatrix();
+        return layout;
     }
 }
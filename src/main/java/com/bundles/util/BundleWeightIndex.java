@@ -0,0 +1,185 @@
+package com.bundles.util;
+
+import com.bundles.init.BundleResources;
+import net.minecraft.item.Item;
+import net.minecraft.tags.ITag;
+import net.minecraft.tags.ITagCollection;
+import net.minecraft.tags.ItemTags;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Bundle Weight Index.
+ * Registry id indexed weights of the Items put inside a Bundle.
+ * An Item weighs 64 divided by its max stack size, unless it is
+ * inside a bundles:bundle_weight/N tag, which makes it weigh N.
+ * Tags are synced to the clients, so both sides get the same weights.
+ * The index is immutable once built, so it can be read from
+ * any thread, and it is built again whenever the tags change
+ *
+ * @author JimiIT92
+ */
+@Mod.EventBusSubscriber(modid = BundleResources.MOD_ID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public final class BundleWeightIndex {
+
+    /**
+     * Current index, null until built
+     */
+    private static volatile Index index;
+
+    /**
+     * Item weights, along with the tags they come from
+     */
+    private static final class Index {
+
+        /**
+         * Weight of each Item, by registry id
+         */
+        private final int[] weights;
+        /**
+         * Hash of the weights, stored inside the Bundles
+         * to tell if their weight has been computed with them
+         */
+        private final int stamp;
+        /**
+         * Item tags the index has been built from
+         */
+        private final ITagCollection<Item> itemTags;
+
+        /**
+         * Constructor
+         *
+         * @param weights  Weight of each Item
+         * @param itemTags Item tags
+         */
+        private Index(int[] weights, ITagCollection<Item> itemTags) {
+            this.weights = weights;
+            this.stamp = Arrays.hashCode(weights);
+            this.itemTags = itemTags;
+        }
+    }
+
+    /**
+     * Get the weight of an Item inside a Bundle
+     *
+     * @param item Item
+     * @return Item weight
+     */
+    public static int getWeight(Item item) {
+        int id = Item.getIdFromItem(item);
+        int[] weights = getIndex().weights;
+        return id >= 0 && id < weights.length ? weights[id] : getDefaultWeight(item);
+    }
+
+    /**
+     * Get a hash of the current weights
+     *
+     * @return Weights hash
+     */
+    public static int getStamp() {
+        return getIndex().stamp;
+    }
+
+    /**
+     * Drop the index when the tags are reloaded
+     *
+     * @param event Tags Updated Event
+     */
+    @SubscribeEvent
+    public static void onTagsUpdated(final TagsUpdatedEvent event) {
+        index = null;
+    }
+
+    /**
+     * Get the current index, building it if
+     * the tags changed since it was built
+     *
+     * @return Index
+     */
+    private static Index getIndex() {
+        ITagCollection<Item> itemTags = ItemTags.getCollection();
+        Index current = index;
+        if (current == null || current.itemTags != itemTags) {
+            current = build(itemTags);
+        }
+        return current;
+    }
+
+    /**
+     * Build the index from the tags.
+     * If an Item is inside more than one weight tag,
+     * the heaviest weight is used
+     *
+     * @param itemTags Item tags
+     * @return Index
+     */
+    private static synchronized Index build(ITagCollection<Item> itemTags) {
+        Index current = index;
+        if (current != null && current.itemTags == itemTags) {
+            return current;
+        }
+        int maxId = 0;
+        for (Item item : ForgeRegistries.ITEMS) {
+            maxId = Math.max(maxId, Item.getIdFromItem(item));
+        }
+        int[] weights = new int[maxId + 1];
+        boolean[] overridden = new boolean[maxId + 1];
+        for (Map.Entry<ResourceLocation, ITag<Item>> tag : itemTags.getIDTagMap().entrySet()) {
+            int weight = parseWeight(tag.getKey());
+            if (weight <= 0) {
+                continue;
+            }
+            for (Item item : tag.getValue().getAllElements()) {
+                int id = Item.getIdFromItem(item);
+                if (id >= 0 && id <= maxId && (!overridden[id] || weights[id] < weight)) {
+                    weights[id] = weight;
+                    overridden[id] = true;
+                }
+            }
+        }
+        for (Item item : ForgeRegistries.ITEMS) {
+            int id = Item.getIdFromItem(item);
+            if (id >= 0 && !overridden[id]) {
+                weights[id] = getDefaultWeight(item);
+            }
+        }
+        current = new Index(weights, itemTags);
+        index = current;
+        return current;
+    }
+
+    /**
+     * Get the weight of a weight tag
+     *
+     * @param tagId Tag id
+     * @return Tag weight, or 0 if the tag is not a weight tag
+     */
+    private static int parseWeight(ResourceLocation tagId) {
+        String path = tagId.getPath();
+        if (!BundleResources.MOD_ID.equals(tagId.getNamespace()) || !path.startsWith(BundleResources.BUNDLE_WEIGHT_TAG_PREFIX)) {
+            return 0;
+        }
+        try {
+            int weight = Integer.parseInt(path.substring(BundleResources.BUNDLE_WEIGHT_TAG_PREFIX.length()));
+            return Math.min(weight, BundleResources.MAX_BUNDLE_ITEMS);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Get the weight of an Item without any weight tag
+     *
+     * @param item Item
+     * @return Item weight
+     */
+    private static int getDefaultWeight(Item item) {
+        return Math.max(1, BundleResources.MAX_BUNDLE_ITEMS / Math.max(1, item.getMaxStackSize()));
+    }
+}
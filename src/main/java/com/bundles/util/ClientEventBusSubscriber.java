@@ -3,11 +3,15 @@ package com.bundles.util;
 import com.bundles.event.BundleEvents;
 import com.bundles.init.BundleItems;
 import com.bundles.init.BundleResources;
+import com.bundles.profiling.BundleFrameStats;
+import net.minecraft.client.Minecraft;
 import net.minecraft.client.world.ClientWorld;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.item.IItemPropertyGetter;
 import net.minecraft.item.ItemModelsProperties;
 import net.minecraft.item.ItemStack;
+import net.minecraft.resources.IReloadableResourceManager;
+import net.minecraft.resources.IResourceManagerReloadListener;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
@@ -32,7 +36,11 @@ public final class ClientEventBusSubscriber {
      */
     @SubscribeEvent
     public static void clientSetup(final FMLClientSetupEvent event) {
+        BundleEvents.setup();
         MinecraftForge.EVENT_BUS.register(BundleEvents.class);
+        event.enqueueWork(BundleEvents::registerKeyBindings);
+        ((IReloadableResourceManager) Minecraft.getInstance().getResourceManager())
+                .addReloadListener((IResourceManagerReloadListener) resourceManager -> BundleTooltipUtil.clearCache());
         event.enqueueWork(() -> ItemModelsProperties.registerProperty(
                 BundleItems.BUNDLE.get()
                 , BundleResources.BUNDLE_FULL_NBT_RESOURCE_LOCATION
@@ -40,7 +48,10 @@ public final class ClientEventBusSubscriber {
             @ParametersAreNonnullByDefault
             @Override
             public float call(ItemStack itemStack, @Nullable ClientWorld worldIn, @Nullable LivingEntity entityIn) {
-                return BundleItemUtils.isFull(itemStack) ? 1.0F : 0.0F;
+                long startTime = BundleFrameStats.start();
+                float full = BundleItemUtils.isFull(itemStack) ? 1.0F : 0.0F;
+                BundleFrameStats.stop(startTime);
+                return full;
             }
         }));
     }
@@ -0,0 +1,431 @@
+package com.bundles.util;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.ListNBT;
+import net.minecraft.util.NonNullList;
+import net.minecraftforge.common.util.Constants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Contents of a Shulker Box used as a Bundle.
+ * Works directly on the Slot-indexed entries of the
+ * Shulker Box Items List NBT, so only the slots that
+ * changed are written back.
+ * Nothing but the vanilla Items List NBT is written,
+ * so the revision comes from the slots themselves
+ *
+ * @author JimiIT92
+ */
+final class ShulkerBoxContents extends BundleContents {
+
+    /**
+     * Shulker Box Slots
+     */
+    static final int SLOTS = 27;
+
+    /**
+     * Entry NBT for each slot, null if the slot is empty.
+     * Null until the slots are indexed
+     */
+    private CompoundNBT[] entries;
+    /**
+     * Item for each slot, null if the slot is empty
+     */
+    private Item[] slotItems;
+    /**
+     * Item count for each slot
+     */
+    private int[] counts;
+    /**
+     * Entry NBT of each slot inside the Items List NBT, null if none
+     */
+    private CompoundNBT[] listedEntries;
+    /**
+     * If the slot changed since the contents were opened or last committed
+     */
+    private boolean[] changed;
+    /**
+     * How many slots are empty
+     */
+    private int freeSlots;
+    /**
+     * Bit mask of the slots holding a partial stack
+     */
+    private int partialSlots;
+
+    /**
+     * Constructor
+     *
+     * @param bundle Shulker Box Item Stack
+     */
+    ShulkerBoxContents(ItemStack bundle) {
+        super(bundle);
+    }
+
+    @Override
+    public List<ItemStack> getItems() {
+        if (!dirty) {
+            return readCachedItems();
+        }
+        NonNullList<ItemStack> items = NonNullList.withSize(SLOTS, ItemStack.EMPTY);
+        for (int i = 0; i < SLOTS; i++) {
+            items.set(i, readSlot(i));
+        }
+        return Collections.unmodifiableList(items);
+    }
+
+    @Override
+    public int getContentsHash() {
+        ListNBT itemsNbt = getItemsNbt();
+        return itemsNbt == null ? 0 : itemsNbt.hashCode();
+    }
+
+    @Override
+    public int getRevision() {
+        index();
+        int revision = 1;
+        for (int i = 0; i < SLOTS; i++) {
+            if (entries[i] == null) {
+                continue;
+            }
+            revision = 31 * revision + i;
+            revision = 31 * revision + Objects.hashCode(slotItems[i].getRegistryName());
+            revision = 31 * revision + Objects.hashCode(entries[i].get("tag"));
+            revision = 31 * revision + counts[i];
+        }
+        return revision;
+    }
+
+    @Override
+    public int getRevision(int revisions) {
+        return getRevision();
+    }
+
+    @Override
+    public void commit(int revisions) {
+        commit();
+    }
+
+    @Override
+    public int getItemsCount() {
+        if (entries == null) {
+            ListNBT itemsNbt = getItemsNbt();
+            return itemsNbt == null ? 0 : BundleNBTReader.getShulkerBoxItemsCount(itemsNbt);
+        }
+        int count = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            count += counts[i];
+        }
+        return count;
+    }
+
+    @Override
+    public boolean isFull() {
+        if (entries == null) {
+            ListNBT itemsNbt = getItemsNbt();
+            return itemsNbt != null && BundleNBTReader.isShulkerBoxFull(itemsNbt);
+        }
+        return freeSlots == 0 && partialSlots == 0;
+    }
+
+    @Override
+    public boolean canAdd(ItemStack stack) {
+        if (stack.isEmpty() || BundleItemUtils.isIgnored(stack)) {
+            return false;
+        }
+        if (entries == null) {
+            ListNBT itemsNbt = getItemsNbt();
+            return itemsNbt == null || BundleNBTReader.canAddToShulkerBox(itemsNbt, stack);
+        }
+        return freeSlots > 0 || findPartialSlot(stack, 0) >= 0;
+    }
+
+    @Override
+    public int add(ItemStack stack) {
+        index();
+        if (!canAdd(stack)) {
+            return 0;
+        }
+        int added = 0;
+        int maxStackSize = stack.getMaxStackSize();
+        for (int i = findPartialSlot(stack, 0); i >= 0 && !stack.isEmpty(); i = findPartialSlot(stack, i + 1)) {
+            int amount = Math.min(stack.getCount(), maxStackSize - counts[i]);
+            setCount(i, counts[i] + amount, maxStackSize);
+            getChanges().record(i, counts[i], null);
+            stack.shrink(amount);
+            added += amount;
+        }
+        if (!stack.isEmpty() && freeSlots > 0) {
+            int slot = 0;
+            while (entries[slot] != null) {
+                slot++;
+            }
+            CompoundNBT entry = new CompoundNBT();
+            entry.putByte("Slot", (byte) slot);
+            stack.write(entry);
+            entries[slot] = entry;
+            slotItems[slot] = stack.getItem();
+            freeSlots--;
+            setCount(slot, stack.getCount(), maxStackSize);
+            getChanges().record(slot, counts[slot], entry);
+            added += stack.getCount();
+            stack.setCount(0);
+        }
+        if (added > 0) {
+            dirty = true;
+        }
+        return added;
+    }
+
+    @Override
+    public ItemStack removeFirst(boolean reversed) {
+        index();
+        for (int j = 0; j < SLOTS; j++) {
+            int i = reversed ? SLOTS - 1 - j : j;
+            if (entries[i] != null) {
+                ItemStack stack = readSlot(i);
+                clearSlot(i);
+                dirty = true;
+                getChanges().record(i, 0, null);
+                return stack;
+            }
+        }
+        return ItemStack.EMPTY;
+    }
+
+    @Override
+    public ItemStack peekFirst(boolean reversed) {
+        index();
+        for (int j = 0; j < SLOTS; j++) {
+            int i = reversed ? SLOTS - 1 - j : j;
+            if (entries[i] != null) {
+                return readSlot(i);
+            }
+        }
+        return ItemStack.EMPTY;
+    }
+
+    @Override
+    public List<ItemStack> empty() {
+        index();
+        List<ItemStack> removed = new ArrayList<>();
+        for (int i = 0; i < SLOTS; i++) {
+            if (entries[i] != null) {
+                removed.add(readSlot(i));
+                clearSlot(i);
+            }
+        }
+        if (!removed.isEmpty()) {
+            dirty = true;
+            getChanges().recordEmpty();
+        }
+        return removed;
+    }
+
+    @Override
+    protected void applyChange(int index, int count, CompoundNBT entry) {
+        index();
+        if (entry != null) {
+            if (entries[index] == null) {
+                freeSlots--;
+            }
+            entries[index] = entry;
+            slotItems[index] = BundleNBTReader.getItem(entry);
+            setCount(index, count, BundleNBTReader.getMaxStackSize(entry));
+        } else if (count == 0) {
+            if (entries[index] != null) {
+                clearSlot(index);
+            }
+        } else if (entries[index] != null) {
+            setCount(index, count, BundleNBTReader.getMaxStackSize(entries[index]));
+        }
+        dirty = true;
+    }
+
+    @Override
+    protected void write() {
+        CompoundNBT blockEntityTag = bundle.getOrCreateChildTag("BlockEntityTag");
+        ListNBT itemsNbt = blockEntityTag.getList("Items", Constants.NBT.TAG_COMPOUND);
+        for (int i = 0; i < SLOTS; i++) {
+            if (!changed[i]) {
+                continue;
+            }
+            if (listedEntries[i] != null && listedEntries[i] != entries[i]) {
+                removeEntry(itemsNbt, listedEntries[i]);
+                listedEntries[i] = null;
+            }
+            if (entries[i] != null) {
+                entries[i].putByte("Count", (byte) counts[i]);
+                if (listedEntries[i] == null) {
+                    itemsNbt.add(entries[i]);
+                    listedEntries[i] = entries[i];
+                }
+            }
+            changed[i] = false;
+        }
+        blockEntityTag.put("Items", itemsNbt);
+        BundleContentsCache.invalidate(bundle.getTag());
+    }
+
+    /**
+     * Index the Shulker Box slots, if not already indexed.
+     * Only reads the Item id and Count of each entry,
+     * without decoding any Item Stack
+     */
+    private void index() {
+        if (entries != null) {
+            return;
+        }
+        entries = new CompoundNBT[SLOTS];
+        slotItems = new Item[SLOTS];
+        counts = new int[SLOTS];
+        listedEntries = new CompoundNBT[SLOTS];
+        changed = new boolean[SLOTS];
+        freeSlots = SLOTS;
+        ListNBT itemsNbt = getItemsNbt();
+        if (itemsNbt == null) {
+            return;
+        }
+        for (int i = 0; i < itemsNbt.size(); i++) {
+            CompoundNBT entry = itemsNbt.getCompound(i);
+            int slot = entry.getByte("Slot") & 255;
+            if (slot >= SLOTS || entries[slot] != null || BundleNBTReader.isEmpty(entry)) {
+                continue;
+            }
+            entries[slot] = entry;
+            listedEntries[slot] = entry;
+            slotItems[slot] = BundleNBTReader.getItem(entry);
+            freeSlots--;
+            setCount(slot, BundleNBTReader.getCount(entry), BundleNBTReader.getMaxStackSize(entry));
+            changed[slot] = false;
+        }
+    }
+
+    /**
+     * Find the first slot holding a partial stack
+     * that an Item Stack can be merged into
+     *
+     * @param stack Item Stack
+     * @param from  First slot to check
+     * @return Slot index or -1 if not found
+     */
+    private int findPartialSlot(ItemStack stack, int from) {
+        Item item = stack.getItem();
+        for (int i = from; i < SLOTS; i++) {
+            if ((partialSlots & (1 << i)) != 0 && slotItems[i] == item && BundleNBTReader.matches(entries[i], stack)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Set the Item count of a slot, updating the partial stacks summary
+     *
+     * @param slot         Slot index
+     * @param count        Item count
+     * @param maxStackSize Max stack size of the slot Item
+     */
+    private void setCount(int slot, int count, int maxStackSize) {
+        counts[slot] = count;
+        changed[slot] = true;
+        if (count > 0 && count < maxStackSize) {
+            partialSlots |= 1 << slot;
+        } else {
+            partialSlots &= ~(1 << slot);
+        }
+    }
+
+    /**
+     * Empty a slot
+     *
+     * @param slot Slot index
+     */
+    private void clearSlot(int slot) {
+        setCount(slot, 0, 0);
+        entries[slot] = null;
+        slotItems[slot] = null;
+        freeSlots++;
+    }
+
+    /**
+     * Decode the Item Stack inside a slot
+     *
+     * @param slot Slot index
+     * @return Item Stack inside the slot
+     */
+    private ItemStack readSlot(int slot) {
+        if (entries[slot] == null) {
+            return ItemStack.EMPTY;
+        }
+        ItemStack stack = ItemStack.read(entries[slot]);
+        stack.setCount(counts[slot]);
+        return stack;
+    }
+
+    /**
+     * Get the Shulker Box Items List NBT
+     *
+     * @return Shulker Box Items List NBT or null if the Shulker Box has no Items
+     */
+    private ListNBT getItemsNbt() {
+        CompoundNBT blockEntityTag = bundle.getChildTag("BlockEntityTag");
+        if (blockEntityTag == null || !blockEntityTag.contains("Items", Constants.NBT.TAG_LIST)) {
+            return null;
+        }
+        return blockEntityTag.getList("Items", Constants.NBT.TAG_COMPOUND);
+    }
+
+    /**
+     * Get the cached Shulker Box Item Stacks
+     *
+     * @return Shulker Box's Item Stacks
+     */
+    private List<ItemStack> readCachedItems() {
+        ListNBT itemsNbt = getItemsNbt();
+        if (itemsNbt == null) {
+            return Collections.emptyList();
+        }
+        return BundleContentsCache.getContents(bundle.getTag(), itemsNbt, null, (items, counts) -> readItems(items));
+    }
+
+    /**
+     * Remove an entry from the Items List NBT
+     *
+     * @param itemsNbt Items List NBT
+     * @param entry    Entry NBT
+     */
+    private static void removeEntry(ListNBT itemsNbt, CompoundNBT entry) {
+        for (int i = 0; i < itemsNbt.size(); i++) {
+            if (itemsNbt.get(i) == entry) {
+                itemsNbt.remove(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Decode the Item Stacks of a Shulker Box,
+     * the same way {@link net.minecraft.inventory.ItemStackHelper#loadAllItems} does
+     *
+     * @param items Shulker Box Items List NBT
+     * @return Shulker Box's Item Stacks
+     */
+    private static List<ItemStack> readItems(ListNBT items) {
+        NonNullList<ItemStack> nonnulllist = NonNullList.withSize(SLOTS, ItemStack.EMPTY);
+        for (int i = 0; i < items.size(); i++) {
+            CompoundNBT itemNbt = items.getCompound(i);
+            int slot = itemNbt.getByte("Slot") & 255;
+            if (slot < nonnulllist.size()) {
+                nonnulllist.set(slot, ItemStack.read(itemNbt));
+            }
+        }
+        return nonnulllist;
+    }
+}
@@ -0,0 +1,147 @@
+package com.bundles.util;
+
+import com.bundles.init.BundleResources;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.nbt.CompoundNBT;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Bundle Item Contents Test
+ * Checks the Bundle capacity and weight rules
+ *
+ * @author JimiIT92
+ */
+public class BundleItemContentsTest {
+
+    /**
+     * Bootstrap the registries
+     */
+    @BeforeClass
+    public static void bootstrap() {
+        BundleTestFixtures.bootstrap();
+    }
+
+    /**
+     * An Item weighs 64 divided by its max stack size
+     */
+    @Test
+    public void itemsWeighByStackSize() {
+        BundleContents contents = BundleContents.of(BundleTestFixtures.createBundle());
+        assertEquals(10, contents.add(new ItemStack(Items.STONE, 10)));
+        assertEquals(4, contents.add(new ItemStack(Items.ENDER_PEARL, 4)));
+        assertEquals(10 + 4 * 4, contents.getWeight());
+        assertEquals(14, contents.getItemsCount());
+    }
+
+    /**
+     * Items that don't fit in the weight left are refused
+     */
+    @Test
+    public void heavyItemsDontFit() {
+        BundleContents contents = BundleContents.of(BundleTestFixtures.createBundle());
+        assertEquals(32, contents.add(new ItemStack(Items.STONE, 32)));
+        assertFalse(contents.canAdd(new ItemStack(Items.DIAMOND_SWORD)));
+        assertEquals(0, contents.add(new ItemStack(Items.DIAMOND_SWORD)));
+        assertEquals(32, contents.getWeight());
+    }
+
+    /**
+     * A full Bundle refuses any other Item
+     */
+    @Test
+    public void fullBundleRefusesItems() {
+        ItemStack bundle = BundleTestFixtures.createBundle();
+        BundleContents contents = BundleContents.of(bundle);
+        assertEquals(1, contents.add(new ItemStack(Items.DIAMOND_SWORD)));
+        assertTrue(contents.isFull());
+        assertFalse(contents.canAdd(new ItemStack(Items.STONE)));
+        contents.commit();
+        assertEquals(BundleResources.MAX_BUNDLE_ITEMS, BundleContents.of(bundle).getWeight());
+    }
+
+    /**
+     * Reading the weight of a Bundle without a stored weight
+     * computes it without writing it into the header
+     */
+    @Test
+    public void weightIsNotStoredOnRead() {
+        ItemStack bundle = BundleTestFixtures.createLegacyBundle(new ItemStack(Items.STONE, 10), new ItemStack(Items.ENDER_PEARL, 2));
+        assertEquals(18, BundleContentsHeader.getWeight(bundle));
+        assertFalse(bundle.getTag().contains(BundleResources.BUNDLE_HEADER_NBT_RESOURCE_LOCATION));
+    }
+
+    /**
+     * The client stores the weight it computed when committing
+     */
+    @Test
+    public void clientCommitStoresWeight() {
+        ItemStack bundle = BundleTestFixtures.createBundle();
+        BundleContents contents = BundleContents.of(bundle);
+        contents.add(new ItemStack(Items.ENDER_PEARL, 2));
+        contents.commit();
+        CompoundNBT header = bundle.getTag().getCompound(BundleResources.BUNDLE_HEADER_NBT_RESOURCE_LOCATION);
+        assertEquals(8, header.getInt("weight"));
+        assertEquals(~BundleWeightIndex.getStamp(), header.getInt("weights"));
+        header.putInt("weight", 20);
+        assertEquals(20, BundleContentsHeader.getWeight(bundle));
+    }
+
+    /**
+     * The server computes again a weight stored by the client,
+     * while the client trusts the weight stored by the server
+     */
+    @Test
+    public void serverIgnoresClientWeight() {
+        ItemStack bundle = BundleTestFixtures.createBundle();
+        BundleContents contents = BundleContents.of(bundle);
+        contents.add(new ItemStack(Items.ENDER_PEARL, 2));
+        contents.commit();
+        CompoundNBT header = bundle.getTag().getCompound(BundleResources.BUNDLE_HEADER_NBT_RESOURCE_LOCATION);
+        header.putInt("weight", 20);
+        BundleContentsHeader.setServerSide(() -> true);
+        try {
+            assertEquals(8, BundleContentsHeader.getWeight(bundle));
+            contents = BundleContents.of(bundle);
+            contents.add(new ItemStack(Items.STONE));
+            contents.commit();
+            assertEquals(BundleWeightIndex.getStamp(), header.getInt("weights"));
+        } finally {
+            BundleContentsHeader.setServerSide(() -> false);
+        }
+        header.putInt("weight", 20);
+        assertEquals(20, BundleContentsHeader.getWeight(bundle));
+    }
+
+    /**
+     * Peeking shows the Item Stack removed next without removing it
+     */
+    @Test
+    public void peekDoesNotRemove() {
+        BundleContents contents = BundleContents.of(BundleTestFixtures.createBundle());
+        contents.add(new ItemStack(Items.STONE, 10));
+        contents.add(new ItemStack(Items.ENDER_PEARL, 2));
+        assertEquals(Items.ENDER_PEARL, contents.peekFirst(false).getItem());
+        assertEquals(Items.STONE, contents.peekFirst(true).getItem());
+        assertEquals(12, contents.getItemsCount());
+        assertTrue(ItemStack.areItemStacksEqual(contents.peekFirst(false), contents.removeFirst(false)));
+    }
+
+    /**
+     * Taking Items out frees their weight
+     */
+    @Test
+    public void removingItemsFreesWeight() {
+        BundleContents contents = BundleContents.of(BundleTestFixtures.createBundle());
+        contents.add(new ItemStack(Items.STONE, 10));
+        contents.add(new ItemStack(Items.ENDER_PEARL, 2));
+        ItemStack removed = contents.removeFirst(false);
+        assertEquals(Items.ENDER_PEARL, removed.getItem());
+        assertEquals(2, removed.getCount());
+        assertEquals(10, contents.getWeight());
+        assertEquals(10, contents.getItemsCount());
+    }
+}
@@ -0,0 +1,120 @@
+package com.bundles.util;
+
+import com.bundles.init.BundleResources;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.ListNBT;
+import net.minecraft.util.text.StringTextComponent;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Bundle Item Format Test
+ * Checks the palette format and the reading of old Bundles
+ *
+ * @author JimiIT92
+ */
+public class BundleItemFormatTest {
+
+    /**
+     * Bootstrap the registries
+     */
+    @BeforeClass
+    public static void bootstrap() {
+        BundleTestFixtures.bootstrap();
+    }
+
+    /**
+     * Entries are read back in order, with their counts,
+     * and equal prototypes are written once
+     */
+    @Test
+    public void paletteRoundTrip() {
+        CompoundNBT stone = BundleItemFormat.toPrototype(new ItemStack(Items.STONE).write(new CompoundNBT()));
+        CompoundNBT dirt = BundleItemFormat.toPrototype(new ItemStack(Items.DIRT).write(new CompoundNBT()));
+        CompoundNBT bundleTag = new CompoundNBT();
+        BundleItemFormat.write(bundleTag, Arrays.asList(stone, dirt, stone.copy()), new IntArrayList(new int[]{10, 5, 3}));
+
+        assertEquals(2, BundleItemFormat.getPalette(bundleTag).size());
+        List<CompoundNBT> entries = new ArrayList<>();
+        IntArrayList counts = new IntArrayList();
+        BundleItemFormat.readEntries(bundleTag, entries, counts);
+        assertEquals(Arrays.asList(stone, dirt, stone), entries);
+        assertEquals(new IntArrayList(new int[]{10, 5, 3}), counts);
+    }
+
+    /**
+     * Opening an old Bundle reads its Items
+     * without changing its tag
+     */
+    @Test
+    public void legacyBundleIsReadWithoutChanges() {
+        ItemStack namedDirt = new ItemStack(Items.DIRT, 5);
+        namedDirt.setDisplayName(new StringTextComponent("Dirt"));
+        ItemStack bundle = BundleTestFixtures.createLegacyBundle(new ItemStack(Items.STONE, 10), namedDirt);
+        CompoundNBT before = bundle.getTag().copy();
+
+        BundleContents contents = BundleContents.of(bundle);
+        List<ItemStack> items = contents.getItems();
+        assertEquals(2, items.size());
+        assertEquals(Items.STONE, items.get(0).getItem());
+        assertEquals(10, items.get(0).getCount());
+        assertTrue(ItemStack.areItemStacksEqual(namedDirt, items.get(1)));
+        assertEquals(15, contents.getItemsCount());
+        assertEquals(2, BundleContentsHeader.getEntriesCount(bundle));
+        assertEquals(15, contents.getWeight());
+        assertEquals(before, bundle.getTag());
+    }
+
+    /**
+     * Committing changed contents writes an old Bundle
+     * in the current format, keeping its Items
+     */
+    @Test
+    public void commitMigratesLegacyBundle() {
+        ItemStack bundle = BundleTestFixtures.createLegacyBundle(new ItemStack(Items.STONE, 10), new ItemStack(Items.DIRT, 5));
+        BundleContents contents = BundleContents.of(bundle);
+        assertEquals(1, contents.add(new ItemStack(Items.SAND)));
+        contents.commit();
+
+        CompoundNBT bundleTag = bundle.getTag();
+        assertFalse(BundleItemFormat.isLegacy(bundleTag));
+        assertFalse(bundleTag.contains(BundleResources.BUNDLE_ITEMS_LIST_NBT_RESOURCE_LOCATION));
+        assertEquals(BundleItemFormat.FORMAT, BundleContentsHeader.getFormat(bundleTag));
+        assertEquals(16, BundleContentsHeader.getItemsCount(bundle));
+        List<ItemStack> items = BundleContents.of(bundle).getItems();
+        assertEquals(3, items.size());
+        assertEquals(10, items.get(0).getCount());
+        assertEquals(5, items.get(1).getCount());
+        assertEquals(Items.SAND, items.get(2).getItem());
+    }
+
+    /**
+     * Changing only the counts of existing entries
+     * keeps the written palette
+     */
+    @Test
+    public void countsAreWrittenInPlace() {
+        ItemStack bundle = BundleTestFixtures.createBundle();
+        BundleContents contents = BundleContents.of(bundle);
+        contents.add(new ItemStack(Items.STONE, 10));
+        contents.commit();
+        ListNBT palette = BundleItemFormat.getPalette(bundle.getTag());
+
+        contents = BundleContents.of(bundle);
+        assertEquals(5, contents.add(new ItemStack(Items.STONE, 5)));
+        contents.commit();
+
+        assertSame(palette, BundleItemFormat.getPalette(bundle.getTag()));
+        assertEquals(15, BundleContentsHeader.getItemsCount(bundle));
+        assertEquals(15, BundleContents.of(bundle).getItems().get(0).getCount());
+    }
+}
@@ -0,0 +1,113 @@
+package com.bundles.util;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.nbt.CompoundNBT;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Bundle Item Handler Test
+ * Checks the Bundle Item Handler against the IItemHandler contract
+ *
+ * @author JimiIT92
+ */
+public class BundleItemHandlerTest {
+
+    /**
+     * Bootstrap the registries
+     */
+    @BeforeClass
+    public static void bootstrap() {
+        BundleTestFixtures.bootstrap();
+    }
+
+    /**
+     * Every entry is a Slot, plus the last empty one
+     */
+    @Test
+    public void slotsAreEntriesPlusOne() {
+        BundleItemHandler handler = new BundleItemHandler(BundleTestFixtures.createBundle());
+        assertEquals(1, handler.getSlots());
+        assertTrue(handler.insertItem(0, new ItemStack(Items.STONE, 10), false).isEmpty());
+        assertEquals(2, handler.getSlots());
+        assertEquals(Items.STONE, handler.getStackInSlot(0).getItem());
+        assertEquals(10, handler.getStackInSlot(0).getCount());
+        assertTrue(handler.getStackInSlot(1).isEmpty());
+    }
+
+    /**
+     * An entry Slot only takes more of the same Item,
+     * while the last Slot makes a new entry
+     */
+    @Test
+    public void insertHonorsSlot() {
+        BundleItemHandler handler = new BundleItemHandler(BundleTestFixtures.createBundle());
+        handler.insertItem(0, new ItemStack(Items.STONE, 10), false);
+
+        assertFalse(handler.isItemValid(0, new ItemStack(Items.DIRT)));
+        assertEquals(5, handler.insertItem(0, new ItemStack(Items.DIRT, 5), false).getCount());
+        assertTrue(handler.isItemValid(1, new ItemStack(Items.DIRT)));
+        assertTrue(handler.insertItem(1, new ItemStack(Items.DIRT, 5), false).isEmpty());
+        assertTrue(handler.insertItem(0, new ItemStack(Items.STONE, 2), false).isEmpty());
+
+        assertEquals(3, handler.getSlots());
+        assertEquals(12, handler.getStackInSlot(0).getCount());
+        assertEquals(5, handler.getStackInSlot(1).getCount());
+        assertFalse(handler.isItemValid(5, new ItemStack(Items.DIRT)));
+    }
+
+    /**
+     * Simulated calls never change the Bundle
+     */
+    @Test
+    public void simulateDoesNotChangeBundle() {
+        ItemStack bundle = BundleTestFixtures.createBundle();
+        BundleItemHandler handler = new BundleItemHandler(bundle);
+        handler.insertItem(0, new ItemStack(Items.STONE, 10), false);
+        CompoundNBT before = bundle.getTag().copy();
+
+        assertTrue(handler.insertItem(0, new ItemStack(Items.STONE, 5), true).isEmpty());
+        assertEquals(4, handler.extractItem(0, 4, true).getCount());
+
+        assertEquals(before, bundle.getTag());
+        assertEquals(10, handler.getStackInSlot(0).getCount());
+    }
+
+    /**
+     * Extracting takes Items out of an entry and
+     * removes the entry once it's empty
+     */
+    @Test
+    public void extractTakesFromEntry() {
+        ItemStack bundle = BundleTestFixtures.createBundle();
+        BundleItemHandler handler = new BundleItemHandler(bundle);
+        handler.insertItem(0, new ItemStack(Items.STONE, 10), false);
+
+        assertEquals(4, handler.extractItem(0, 4, false).getCount());
+        assertEquals(6, handler.getStackInSlot(0).getCount());
+        assertEquals(6, BundleContents.of(bundle).getItemsCount());
+        assertEquals(6, handler.extractItem(0, 64, false).getCount());
+        assertEquals(1, handler.getSlots());
+        assertTrue(handler.extractItem(0, 1, false).isEmpty());
+    }
+
+    /**
+     * Changes made to the Bundle somewhere else are seen by the handler
+     */
+    @Test
+    public void outsideChangesAreSeen() {
+        ItemStack bundle = BundleTestFixtures.createBundle();
+        BundleItemHandler handler = new BundleItemHandler(bundle);
+        handler.insertItem(0, new ItemStack(Items.STONE, 10), false);
+
+        BundleContents contents = BundleContents.of(bundle);
+        contents.add(new ItemStack(Items.DIRT, 3));
+        contents.commit();
+
+        assertEquals(3, handler.getSlots());
+        assertEquals(Items.DIRT, handler.getStackInSlot(1).getItem());
+    }
+}
@@ -0,0 +1,84 @@
+package com.bundles.util;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.inventory.Inventory;
+import net.minecraft.inventory.container.ChestContainer;
+import net.minecraft.inventory.container.Container;
+import net.minecraft.inventory.container.RepairContainer;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Bundle Merge Plan Test
+ * Checks which Slots the Items taken out of a Bundle go into
+ *
+ * @author JimiIT92
+ */
+public class BundleMergePlanTest {
+
+    /**
+     * Bootstrap the registries
+     */
+    @BeforeClass
+    public static void bootstrap() {
+        BundleTestFixtures.bootstrap();
+    }
+
+    /**
+     * An open chest is filled before the Player inventory
+     */
+    @Test
+    public void chestSlotsComeFirst() {
+        PlayerInventory inventory = new PlayerInventory(null);
+        Inventory chestInventory = new Inventory(27);
+        Container container = ChestContainer.createGeneric9X3(0, inventory, chestInventory);
+
+        ItemStack stack = new ItemStack(Items.STONE, 10);
+        BundleMergePlan.of(container, inventory, null).apply(stack);
+
+        assertTrue(stack.isEmpty());
+        assertEquals(10, chestInventory.getStackInSlot(0).getCount());
+    }
+
+    /**
+     * Partial stacks are filled before empty Slots are used
+     */
+    @Test
+    public void partialStacksAreFilledFirst() {
+        PlayerInventory inventory = new PlayerInventory(null);
+        inventory.setInventorySlotContents(0, new ItemStack(Items.STONE, 60));
+        Inventory chestInventory = new Inventory(27);
+        Container container = ChestContainer.createGeneric9X3(0, inventory, chestInventory);
+
+        BundleMergePlan.of(container, inventory, null).apply(new ItemStack(Items.STONE, 10));
+
+        assertEquals(64, inventory.getStackInSlot(0).getCount());
+        assertEquals(6, chestInventory.getStackInSlot(0).getCount());
+    }
+
+    /**
+     * Containers that are not plain storage,
+     * like anvils, only get the Player inventory
+     */
+    @Test
+    public void nonStorageSlotsAreSkipped() {
+        PlayerInventory inventory = new PlayerInventory(null);
+        Container container = new RepairContainer(0, inventory);
+
+        BundleMergePlan plan = BundleMergePlan.of(container, inventory, null);
+        plan.apply(new ItemStack(Items.STONE, 10));
+
+        IntArrayList slotIds = new IntArrayList();
+        IntArrayList slotCounts = new IntArrayList();
+        plan.getChangedSlots(slotIds, slotCounts);
+        assertEquals(1, slotIds.size());
+        assertSame(inventory, container.getSlot(slotIds.getInt(0)).inventory);
+        assertEquals(10, slotCounts.getInt(0));
+        assertTrue(container.getSlot(0).getStack().isEmpty());
+    }
+}
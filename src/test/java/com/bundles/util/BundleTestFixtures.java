@@ -0,0 +1,59 @@
+package com.bundles.util;
+
+import com.bundles.init.BundleResources;
+import com.bundles.item.BundleItem;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.ListNBT;
+import net.minecraft.util.registry.Bootstrap;
+
+/**
+ * Bundle Test Fixtures
+ * Bundles used by the tests
+ *
+ * @author JimiIT92
+ */
+final class BundleTestFixtures {
+
+    /**
+     * Bundle Item, created after the registries are bootstrapped
+     */
+    private static Item bundleItem;
+
+    /**
+     * Bootstrap the Minecraft registries, without starting the game
+     */
+    static synchronized void bootstrap() {
+        if (bundleItem == null) {
+            Bootstrap.register();
+            bundleItem = new BundleItem();
+        }
+    }
+
+    /**
+     * Create an empty Bundle
+     *
+     * @return Bundle Item Stack
+     */
+    static ItemStack createBundle() {
+        return new ItemStack(bundleItem);
+    }
+
+    /**
+     * Create a Bundle still using the old list of full Item Stacks,
+     * without any header, as written by the first versions of the mod
+     *
+     * @param stacks Item Stacks inside the Bundle
+     * @return Bundle Item Stack
+     */
+    static ItemStack createLegacyBundle(ItemStack... stacks) {
+        ItemStack bundle = createBundle();
+        ListNBT items = new ListNBT();
+        for (ItemStack stack : stacks) {
+            items.add(stack.write(new CompoundNBT()));
+        }
+        bundle.getOrCreateTag().put(BundleResources.BUNDLE_ITEMS_LIST_NBT_RESOURCE_LOCATION, items);
+        return bundle;
+    }
+}
@@ -0,0 +1,59 @@
+package com.bundles.util;
+
+import com.bundles.init.BundleResources;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Shulker Box Contents Test
+ * Checks that Shulker Boxes keep their vanilla NBT
+ *
+ * @author JimiIT92
+ */
+public class ShulkerBoxContentsTest {
+
+    /**
+     * Bootstrap the registries
+     */
+    @BeforeClass
+    public static void bootstrap() {
+        BundleTestFixtures.bootstrap();
+    }
+
+    /**
+     * Committing only writes the vanilla Items List NBT
+     */
+    @Test
+    public void commitKeepsVanillaNbt() {
+        ItemStack shulkerBox = new ItemStack(Items.SHULKER_BOX);
+        BundleContents contents = BundleContents.of(shulkerBox);
+        assertEquals(16, contents.add(new ItemStack(Items.STONE, 16)));
+        contents.commit(2);
+        assertEquals(1, shulkerBox.getTag().size());
+        assertFalse(shulkerBox.getTag().contains(BundleResources.BUNDLE_HEADER_NBT_RESOURCE_LOCATION));
+        assertEquals(16, BundleContents.of(shulkerBox).getItemsCount());
+    }
+
+    /**
+     * The revision follows the Shulker Box slots,
+     * including the changes not committed yet
+     */
+    @Test
+    public void revisionFollowsContents() {
+        ItemStack shulkerBox = new ItemStack(Items.SHULKER_BOX);
+        BundleContents contents = BundleContents.of(shulkerBox);
+        int emptyRevision = contents.getRevision();
+        contents.add(new ItemStack(Items.STONE, 16));
+        int revision = contents.getRevision(1);
+        assertNotEquals(emptyRevision, revision);
+        contents.commit(1);
+        assertEquals(revision, BundleContents.of(shulkerBox).getRevision());
+        assertEquals(revision, BundleContents.of(shulkerBox.copy()).getRevision());
+        contents.removeFirst(false);
+        assertEquals(emptyRevision, contents.getRevision());
+    }
+}